@@ -0,0 +1,40 @@
+#!/bin/bash
+
+# Прогон ParserBenchmark и сравнение с сохранённым baseline.
+#   ./scripts/compare-benchmarks.sh                  - прогон и сравнение
+#   ./scripts/compare-benchmarks.sh --save-baseline  - прогон и сохранение результата как baseline
+# Дополнительные аргументы передаются JMH, например: -p strategy=FOR_LOOP,STREAM -f 1
+# Порог регрессии в процентах задаётся через THRESHOLD (по умолчанию 5).
+
+set -e
+
+RESULTS_DIR="benchmark-results"
+BASELINE="$RESULTS_DIR/baseline/parser-benchmark.json"
+CURRENT="$RESULTS_DIR/parser-benchmark.json"
+THRESHOLD="${THRESHOLD:-5}"
+
+SAVE_BASELINE=false
+if [ "$1" == "--save-baseline" ]; then
+    SAVE_BASELINE=true
+    shift
+fi
+
+mkdir -p "$RESULTS_DIR/baseline"
+
+echo "Building benchmarks..."
+mvn -q clean package -DskipTests
+
+java -cp target/benchmarks.jar com.example.benchmark.ParserBenchmark "$@"
+
+if [ "$SAVE_BASELINE" == true ]; then
+    cp "$CURRENT" "$BASELINE"
+    echo "✅ Baseline saved to $BASELINE"
+    exit 0
+fi
+
+if [ ! -f "$BASELINE" ]; then
+    echo "❌ No baseline at $BASELINE, run with --save-baseline first"
+    exit 1
+fi
+
+java -cp target/benchmarks.jar com.example.benchmark.BenchmarkComparator "$BASELINE" "$CURRENT" "$THRESHOLD"
@@ -0,0 +1,59 @@
+#!/bin/bash
+
+# Быстрый старт: Spring AOT + AppCDS архив, снятый тренировочным запуском.
+#   ./scripts/fast-startup.sh build [args]  - сборка с -Pfast-startup и тренировочный запуск
+#   ./scripts/fast-startup.sh run [args]    - запуск с AOT и архивом
+# args передаются приложению (например --spring.datasource.url=...).
+# AOT фиксирует набор бинов на этапе сборки: @ConditionalOnProperty (parser.persistence.mode и т.п.)
+# и профили вычисляются в build, менять их при run нельзя - только пересобрать.
+
+cd "$(dirname "$0")/.." || exit 1
+
+FAST_DIR="target/fast-startup"
+JAR=$(ls "$FAST_DIR"/*-fast-startup.jar 2>/dev/null | head -1)
+ARCHIVE="$FAST_DIR/app.jsa"
+COMMAND=${1:-run}
+shift
+
+case "$COMMAND" in
+    build)
+        echo "================================================"
+        echo "Building fast-startup layout (AOT + thin jar)"
+        echo "================================================"
+        mkdir -p target
+        mvn -B -Pfast-startup package -DskipTests > target/fast-startup-build.log 2>&1 \
+            || { echo "❌ Build failed! Check target/fast-startup-build.log"; exit 1; }
+        JAR=$(ls "$FAST_DIR"/*-fast-startup.jar | head -1)
+        echo "✅ Build successful: $JAR"
+
+        # Тренировочный запуск: контекст поднимается целиком (включая JPA и подключение к БД)
+        # и завершается сразу после refresh; загруженные классы пишутся в архив при выходе
+        echo "Training run, writing $ARCHIVE..."
+        rm -f "$ARCHIVE"
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=off \
+             -Dspring.aot.enabled=true \
+             -Dspring.context.exit=onRefresh \
+             -jar "$JAR" "$@" > "$FAST_DIR/training.log" 2>&1
+
+        if [ ! -f "$ARCHIVE" ]; then
+            echo "❌ Training run produced no archive! Check $FAST_DIR/training.log"
+            exit 1
+        fi
+        echo "✅ CDS archive: $ARCHIVE ($(du -h "$ARCHIVE" | cut -f1))"
+        ;;
+    run)
+        if [ -z "$JAR" ] || [ ! -f "$ARCHIVE" ]; then
+            echo "❌ No fast-startup build found, run: $0 build"
+            exit 1
+        fi
+        # Архив привязан к версии JVM и classpath; при несовпадении JVM стартует без него
+        exec java -XX:SharedArchiveFile="$ARCHIVE" \
+             -Dspring.aot.enabled=true \
+             $JAVA_OPTS \
+             -jar "$JAR" "$@"
+        ;;
+    *)
+        echo "Usage: $0 build|run [application args]"
+        exit 1
+        ;;
+esac
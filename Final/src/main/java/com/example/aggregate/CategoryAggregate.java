@@ -0,0 +1,42 @@
+package com.example.aggregate;
+
+/**
+ * Агрегат одной категории. Обновляется writer-потоками и читается запросами,
+ * поэтому все операции под монитором; каждая - O(1), кроме квантиля (O(число бакетов)).
+ */
+public class CategoryAggregate {
+
+    private final QuantileSketch sketch;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public CategoryAggregate(double relativeAccuracy) {
+        this.sketch = new QuantileSketch(relativeAccuracy);
+    }
+
+    public synchronized void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sketch.add(value);
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized double quantile(double quantile) {
+        return sketch.quantile(quantile);
+    }
+
+    public synchronized CategoryStats snapshot(String category) {
+        if (count == 0) {
+            return new CategoryStats(category, 0, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return new CategoryStats(category, count, sum, min, max,
+                sketch.quantile(0.5), sketch.quantile(0.95), sketch.quantile(0.99));
+    }
+}
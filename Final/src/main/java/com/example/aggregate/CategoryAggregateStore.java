@@ -0,0 +1,149 @@
+package com.example.aggregate;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.parser.DataFlushedEvent;
+import com.example.repository.CategoryTotals;
+import com.example.repository.DataRepository;
+import com.example.repository.PartitionsDroppedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Агрегаты по категориям в памяти. Обновляются по {@link DataFlushedEvent} после коммита
+ * каждого батча и периодически сверяются с БД: категория, разошедшаяся больше чем на
+ * driftTolerance записей, пересобирается сканом её значений. Первая сверка после старта
+ * подтягивает уже накопленные в БД данные. После удаления партиций по retention все
+ * категории пересобираются: скетч квантилей не умеет вычитать значения.
+ */
+@Component
+@Slf4j
+public class CategoryAggregateStore {
+
+    private final DataRepository dataRepository;
+    private final MeterRegistry meterRegistry;
+    private final ParserProperties.Aggregates settings;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<String, CategoryAggregate> aggregates = new ConcurrentHashMap<>();
+    private volatile boolean reconciled;
+
+    private Counter rebuilds;
+    private Timer reconcileTimer;
+
+    public CategoryAggregateStore(DataRepository dataRepository,
+                                  MeterRegistry meterRegistry,
+                                  ParserProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.dataRepository = dataRepository;
+        this.meterRegistry = meterRegistry;
+        this.settings = properties.getAggregates();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuilds = Counter.builder("aggregates.rebuilds")
+                .description("Category aggregates rebuilt from the database after drift")
+                .register(meterRegistry);
+
+        reconcileTimer = Timer.builder("aggregates.reconcile.duration")
+                .description("Time taken to reconcile aggregates with the database")
+                .register(meterRegistry);
+
+        Gauge.builder("aggregates.categories", aggregates, Map::size)
+                .description("Categories tracked in memory")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onFlushed(DataFlushedEvent event) {
+        for (DataModel data : event.records()) {
+            aggregate(data.getCategory()).add(data.getValue());
+        }
+    }
+
+    @EventListener
+    public void onPartitionsDropped(PartitionsDroppedEvent event) {
+        log.info("Partitions {} dropped, rebuilding category aggregates", event.partitions());
+        reconcileTimer.record(() -> {
+            Set<String> remaining = new HashSet<>();
+            for (CategoryTotals totals : dataRepository.findCategoryTotals()) {
+                remaining.add(totals.getCategory());
+                rebuild(totals.getCategory());
+            }
+            aggregates.keySet().retainAll(remaining);
+        });
+    }
+
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${parser.aggregates.reconcile-interval:PT5M}")
+    public void reconcile() {
+        reconcileTimer.record(() -> {
+            Set<String> seen = new HashSet<>();
+            for (CategoryTotals totals : dataRepository.findCategoryTotals()) {
+                seen.add(totals.getCategory());
+                long inMemory = aggregate(totals.getCategory()).count();
+                if (Math.abs(totals.getCount() - inMemory) > settings.getDriftTolerance()) {
+                    log.info("Category {} drifted: {} in memory, {} in database, rebuilding",
+                            totals.getCategory(), inMemory, totals.getCount());
+                    rebuild(totals.getCategory());
+                }
+            }
+            // Категории, которых в БД больше нет (удалены строки)
+            aggregates.entrySet().removeIf(entry ->
+                    !seen.contains(entry.getKey()) && entry.getValue().count() > settings.getDriftTolerance());
+            reconciled = true;
+        });
+    }
+
+    /**
+     * Пока идёт скан, события продолжают обновлять старый агрегат и после замены теряются;
+     * расхождение в пределах допуска, большее поправит следующая сверка
+     */
+    private void rebuild(String category) {
+        CategoryAggregate fresh = new CategoryAggregate(settings.getRelativeAccuracy());
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Double> values = dataRepository.streamValuesByCategory(category)) {
+                values.forEach(fresh::add);
+            }
+        });
+        aggregates.put(category, fresh);
+        rebuilds.increment();
+    }
+
+    public Optional<CategoryAggregate> find(String category) {
+        return Optional.ofNullable(aggregates.get(category));
+    }
+
+    public Set<String> categories() {
+        return aggregates.keySet();
+    }
+
+    /**
+     * true после первой сверки: до неё агрегаты могут не учитывать записи прошлых запусков
+     */
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    private CategoryAggregate aggregate(String category) {
+        return aggregates.computeIfAbsent(category, key -> new CategoryAggregate(settings.getRelativeAccuracy()));
+    }
+}
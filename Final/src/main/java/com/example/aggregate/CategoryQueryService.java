@@ -0,0 +1,54 @@
+package com.example.aggregate;
+
+import com.example.repository.CategoryQueryCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.TreeMap;
+
+/**
+ * Запросы к статистике категорий из {@link CategoryAggregateStore} вместо сканов parsed_data.
+ * До первой сверки среднее по-прежнему считается в БД (через {@link CategoryQueryCache}),
+ * чтобы не отдавать неполные данные.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryQueryService {
+
+    private final CategoryAggregateStore store;
+    private final CategoryQueryCache queryCache;
+
+    public OptionalDouble average(String category) {
+        if (!store.isReconciled()) {
+            return queryCache.average(category);
+        }
+        return stats(category).map(stats -> OptionalDouble.of(stats.average())).orElse(OptionalDouble.empty());
+    }
+
+    public Optional<CategoryStats> stats(String category) {
+        return store.find(category)
+                .map(aggregate -> aggregate.snapshot(category))
+                .filter(stats -> stats.count() > 0);
+    }
+
+    /**
+     * @param quantile от 0 до 1, погрешность - parser.aggregates.relative-accuracy
+     */
+    public OptionalDouble percentile(String category, double quantile) {
+        return store.find(category)
+                .filter(aggregate -> aggregate.count() > 0)
+                .map(aggregate -> OptionalDouble.of(aggregate.quantile(quantile)))
+                .orElse(OptionalDouble.empty());
+    }
+
+    public Map<String, CategoryStats> allStats() {
+        Map<String, CategoryStats> result = new TreeMap<>();
+        for (String category : store.categories()) {
+            stats(category).ifPresent(stats -> result.put(category, stats));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.aggregate;
+
+/**
+ * Снимок агрегата категории; квантили приблизительные с точностью скетча
+ */
+public record CategoryStats(String category, long count, double sum, double min, double max,
+                            double p50, double p95, double p99) {
+
+    public double average() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.aggregate;
+
+/**
+ * Квантильный скетч с логарифмическими бакетами (по схеме DDSketch): любой квантиль
+ * возвращается с относительной погрешностью не хуже relativeAccuracy, скетчи с одинаковой
+ * точностью складываются без потерь. Память ограничена maxBuckets на знак,
+ * при переполнении сливаются самые маленькие по модулю бакеты.
+ * Не потокобезопасен, синхронизацией занимается {@link CategoryAggregate}.
+ */
+public class QuantileSketch {
+
+    private static final int DEFAULT_MAX_BUCKETS = 2048;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double multiplier;
+    private final double minIndexableValue;
+
+    private final BucketStore positive;
+    private final BucketStore negative;
+    private long zeroCount;
+
+    public QuantileSketch(double relativeAccuracy) {
+        this(relativeAccuracy, DEFAULT_MAX_BUCKETS);
+    }
+
+    public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.multiplier = 1 / Math.log(gamma);
+        this.minIndexableValue = Double.MIN_NORMAL * gamma;
+        this.positive = new BucketStore(maxBuckets);
+        this.negative = new BucketStore(maxBuckets);
+    }
+
+    public void add(double value) {
+        if (value >= minIndexableValue) {
+            positive.add(index(value), 1);
+        } else if (value <= -minIndexableValue) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+    }
+
+    public long count() {
+        return positive.total + negative.total + zeroCount;
+    }
+
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * @param quantile от 0 до 1
+     * @return NaN для пустого скетча
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]: " + quantile);
+        }
+        long count = count();
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        // Порядок возрастания: отрицательные от больших по модулю, ноль, положительные
+        if (rank < negative.total) {
+            return -value(negative.indexAtRank(negative.total - 1 - rank));
+        }
+        rank -= negative.total;
+        if (rank < zeroCount) {
+            return 0;
+        }
+        return value(positive.indexAtRank(rank - zeroCount));
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) * multiplier);
+    }
+
+    // Середина бакета (gamma^(i-1), gamma^i] в смысле относительной погрешности
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Плотный массив счётчиков с плавающим смещением индекса
+     */
+    private static final class BucketStore {
+
+        private final int maxBuckets;
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        BucketStore(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        void add(int index, long count) {
+            if (count == 0) {
+                return;
+            }
+            // slot() может заменить массив, поэтому индекс считается отдельно
+            int slot = slot(index);
+            counts[slot] += count;
+            total += count;
+        }
+
+        void merge(BucketStore other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                add(other.offset + i, other.counts[i]);
+            }
+        }
+
+        int indexAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            return offset + counts.length - 1;
+        }
+
+        private int slot(int index) {
+            if (counts.length == 0) {
+                counts = new long[Math.min(16, maxBuckets)];
+                offset = index - counts.length / 2;
+            }
+            int last = offset + counts.length - 1;
+            if (index >= offset && index <= last) {
+                return index - offset;
+            }
+
+            int high = Math.max(last, index);
+            int low = Math.max(Math.min(offset, index), high - maxBuckets + 1);
+            // Растём с запасом в сторону нового индекса
+            int size = Math.min(maxBuckets, Math.max(high - low + 1, counts.length * 2));
+            int newOffset = index < offset ? high - size + 1 : low;
+
+            long[] grown = new long[size];
+            for (int i = 0; i < counts.length; i++) {
+                // Бакеты ниже окна сливаются в самый нижний
+                grown[Math.max(0, offset + i - newOffset)] += counts[i];
+            }
+            counts = grown;
+            offset = newOffset;
+            return Math.max(0, index - offset);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сравнивает JSON-результаты JMH с сохранённым baseline.
+ * Регрессия - ухудшение больше порога, которое к тому же не укладывается в сумму
+ * доверительных интервалов обоих прогонов.
+ *
+ * Использование: BenchmarkComparator baseline.json current.json [порог в %, по умолчанию 5]
+ * Код выхода 1, если найдена хотя бы одна регрессия.
+ */
+public final class BenchmarkComparator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkComparator() {
+    }
+
+    /**
+     * Один результат: имя бенчмарка с параметрами, режим и оценка
+     */
+    public record Result(String key, String mode, double score, double error, String unit) {
+
+        /**
+         * Для thrpt больше - лучше, для avgt/sample/ss - наоборот
+         */
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public record Delta(Result baseline, Result current) {
+
+        /**
+         * Относительное изменение в процентах, положительное - улучшение
+         */
+        public double changePercent() {
+            double change = (current.score() - baseline.score()) / baseline.score() * 100;
+            return baseline.higherIsBetter() ? change : -change;
+        }
+
+        public boolean isRegression(double thresholdPercent) {
+            double noise = baseline.error() + current.error();
+            return changePercent() < -thresholdPercent
+                    && Math.abs(current.score() - baseline.score()) > noise;
+        }
+    }
+
+    public static Map<String, Result> read(Path file) throws IOException {
+        return parse(MAPPER.readTree(file.toFile()));
+    }
+
+    static Map<String, Result> parse(JsonNode root) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : root) {
+            String mode = run.path("mode").asText();
+            JsonNode metric = run.path("primaryMetric");
+            String key = key(run.path("benchmark").asText(), mode, run.path("params"));
+            results.put(key, new Result(key, mode,
+                    metric.path("score").asDouble(),
+                    finite(metric.path("scoreError").asDouble()),
+                    metric.path("scoreUnit").asText()));
+        }
+        return results;
+    }
+
+    public static List<Delta> compare(Map<String, Result> baseline, Map<String, Result> current) {
+        List<Delta> deltas = new ArrayList<>();
+        current.forEach((key, result) -> {
+            Result base = baseline.get(key);
+            if (base != null && base.score() > 0) {
+                deltas.add(new Delta(base, result));
+            }
+        });
+        return deltas;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        List<Delta> deltas = compare(baseline, current);
+
+        int regressions = 0;
+        for (Delta delta : deltas) {
+            boolean regression = delta.isRegression(threshold);
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-4s %-90s %14.3f -> %14.3f %-12s %+7.1f%%%n",
+                    regression ? "FAIL" : "ok",
+                    delta.current().key(),
+                    delta.baseline().score(),
+                    delta.current().score(),
+                    delta.current().unit(),
+                    delta.changePercent());
+        }
+
+        current.keySet().stream()
+                .filter(key -> !baseline.containsKey(key))
+                .forEach(key -> System.out.println("new  " + key));
+
+        System.out.printf("%d compared, %d regressions (threshold %.1f%%)%n", deltas.size(), regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String key(String benchmark, String mode, JsonNode params) {
+        // Параметры сортируются, чтобы ключ не зависел от порядка полей в JSON
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        return sorted.isEmpty() ? name + " [" + mode + "]" : name + sorted + " [" + mode + "]";
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
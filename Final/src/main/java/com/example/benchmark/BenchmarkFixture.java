@@ -0,0 +1,86 @@
+package com.example.benchmark;
+
+import com.example.config.ParserProperties;
+import com.example.parser.BatchWriter;
+import com.example.parser.ParserService;
+import com.example.parser.engine.ExecutionMode;
+import com.example.parser.engine.ParseEngine;
+import com.example.stage.StageRecorder;
+import com.example.tracing.RecordTracer;
+import com.example.tracing.TracingMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+
+import java.time.Duration;
+
+/**
+ * Собирает ParserService без Spring-контекста: in-memory репозиторий, no-op трейсер
+ * и SimpleMeterRegistry. Бенчмарк меряет парсер и конвейер записи, а не старт
+ * приложения, Hikari и доступность БД.
+ */
+public class BenchmarkFixture implements AutoCloseable {
+
+    private final InMemoryDataBatchRepository repository = new InMemoryDataBatchRepository();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BatchWriter batchWriter;
+    private final ParseEngine parseEngine;
+    private final ParserService parserService;
+
+    public BenchmarkFixture(ParserProperties properties) {
+        Tracer tracer = OpenTelemetry.noop().getTracer("benchmark");
+
+        batchWriter = new BatchWriter(repository, meterRegistry, event -> { }, properties);
+        parseEngine = ParseEngine.create(properties.getEngine(), meterRegistry);
+        parserService = new ParserService(batchWriter, meterRegistry, tracer, parseEngine, properties,
+                new RecordTracer(tracer, TracingMode.FULL, meterRegistry), new StageRecorder(meterRegistry));
+
+        // Жизненный цикл, который в приложении ведёт контейнер
+        batchWriter.start();
+        parserService.init();
+    }
+
+    /**
+     * Конфигурация по умолчанию, как в application.properties
+     */
+    public static BenchmarkFixture defaults() {
+        return new BenchmarkFixture(new ParserProperties());
+    }
+
+    /**
+     * @param mode    модель исполнения parseData
+     * @param threads размер пула для PLATFORM, лимит конкурентности для VIRTUAL и STRUCTURED,
+     *                parallelism выделенного ForkJoinPool
+     * @param delay   имитация обработки одной записи
+     */
+    public static BenchmarkFixture of(ExecutionMode mode, int threads, Duration delay) {
+        ParserProperties properties = new ParserProperties();
+        properties.setMaxSimulatedDelay(delay);
+        properties.getEngine().setMode(mode);
+        properties.getEngine().setThreads(threads);
+        properties.getEngine().setMaxConcurrency(threads);
+        properties.getForkJoin().setParallelism(threads);
+        return new BenchmarkFixture(properties);
+    }
+
+    public ParserService parserService() {
+        return parserService;
+    }
+
+    public InMemoryDataBatchRepository repository() {
+        return repository;
+    }
+
+    public MeterRegistry meterRegistry() {
+        return meterRegistry;
+    }
+
+    @Override
+    public void close() {
+        parserService.cleanup();
+        parseEngine.close();
+        batchWriter.stop();
+        meterRegistry.close();
+    }
+}
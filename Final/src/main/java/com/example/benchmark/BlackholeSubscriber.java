@@ -0,0 +1,58 @@
+package com.example.benchmark;
+
+import com.example.parser.DataBatch;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+/**
+ * Подписчик для бенчмарков: запрашивает записи окнами и отдаёт их в Blackhole.
+ */
+public class BlackholeSubscriber implements Flow.Subscriber<DataBatch.Row> {
+
+    private final Blackhole blackhole;
+    private final int window;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private Flow.Subscription subscription;
+    private int receivedInWindow;
+    private volatile Throwable error;
+
+    public BlackholeSubscriber(Blackhole blackhole, int window) {
+        this.blackhole = blackhole;
+        this.window = window;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(DataBatch.Row item) {
+        blackhole.consume(item);
+        if (++receivedInWindow == window) {
+            receivedInWindow = 0;
+            subscription.request(window);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        done.countDown();
+    }
+
+    public void await() throws InterruptedException {
+        done.await();
+        if (error != null) {
+            throw new IllegalStateException("Record stream failed", error);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.benchmark;
+
+import com.example.model.DataModel;
+import com.example.repository.DataBatchRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Заглушка репозитория для бенчмарков: выдаёт id как sequence и считает строки,
+ * но не удерживает записи, чтобы heap не рос от итерации к итерации.
+ */
+public class InMemoryDataBatchRepository implements DataBatchRepository {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    @Override
+    public void saveBatch(List<DataModel> batch) {
+        for (DataModel data : batch) {
+            data.setId(sequence.incrementAndGet());
+        }
+        flushes.incrementAndGet();
+    }
+
+    public long savedRows() {
+        return sequence.get();
+    }
+
+    public long flushes() {
+        return flushes.get();
+    }
+}
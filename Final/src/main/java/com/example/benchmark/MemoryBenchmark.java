@@ -1,19 +1,26 @@
 package com.example.benchmark;
 
-import com.example.MainApp;
+import com.example.model.DataModel;
+import com.example.parser.DataBatch;
 import com.example.parser.ParserService;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
-import org.springframework.context.ConfigurableApplicationContext;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import static com.example.parser.engine.ExecutionMode.PLATFORM;
+
 @BenchmarkMode(Mode.SingleShotTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 @State(Scope.Benchmark)
@@ -22,20 +29,68 @@ import java.util.concurrent.TimeUnit;
 @Fork(value = 1)
 public class MemoryBenchmark {
 
-    private ConfigurableApplicationContext context;
+    private BenchmarkFixture fixture;
     private ParserService parserService;
 
+    /**
+     * Размер батча только для сравнения пиков heap, остальные бенчмарки от него не зависят
+     */
+    @State(Scope.Benchmark)
+    public static class PeakBatch {
+        @Param({"50000", "200000"})
+        public int size;
+    }
+
+    /**
+     * Пиковое использование heap за итерацию. Сумма пиков по пулам - верхняя оценка,
+     * пик old gen показывает, сколько записей реально удерживается.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HeapPeak {
+        public long peakHeapMb;
+        public long peakOldGenMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void capture() {
+            long heap = 0;
+            long oldGen = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() != MemoryType.HEAP) {
+                    continue;
+                }
+                long peak = pool.getPeakUsage().getUsed();
+                heap += peak;
+                if (pool.getName().contains("Old") || pool.getName().contains("Tenured")) {
+                    oldGen += peak;
+                }
+            }
+            peakHeapMb = heap / (1024 * 1024);
+            peakOldGenMb = oldGen / (1024 * 1024);
+        }
+    }
+
     @Setup(Level.Trial)
     public void setup() {
-        System.setProperty("spring.profiles.active", "benchmark");
-        context = org.springframework.boot.SpringApplication.run(MainApp.class);
-        parserService = context.getBean(ParserService.class);
+        // Без имитации задержки, чтобы большой батч проходил за секунды
+        fixture = BenchmarkFixture.of(PLATFORM, Runtime.getRuntime().availableProcessors(), Duration.ZERO);
+        parserService = fixture.parserService();
     }
 
     @TearDown(Level.Trial)
     public void tearDown() {
-        if (context != null) {
-            context.close();
+        if (fixture != null) {
+            fixture.close();
         }
     }
 
@@ -62,9 +117,30 @@ public class MemoryBenchmark {
         }
     }
 
+    /**
+     * Весь батч как List&lt;DataModel&gt;, как его держал парсер до перехода на DataBatch
+     */
+    @Benchmark
+    public void benchmarkListPeakHeap(PeakBatch batchSize, HeapPeak heapPeak, Blackhole bh) {
+        DataBatch batch = parserService.parseWithForLoop(batchSize.size);
+        List<DataModel> entities = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entities.add(batch.toEntity(i));
+        }
+        bh.consume(entities);
+    }
+
+    @Benchmark
+    public void benchmarkStreamingPeakHeap(PeakBatch batchSize, HeapPeak heapPeak, Blackhole bh) throws InterruptedException {
+        BlackholeSubscriber subscriber = new BlackholeSubscriber(bh, 256);
+        parserService.parseAsPublisher(batchSize.size).subscribe(subscriber);
+        subscriber.await();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(MemoryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
                 .result("benchmark-results/memory-benchmark.json")
                 .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
                 .build();
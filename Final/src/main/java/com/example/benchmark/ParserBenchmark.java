@@ -1,72 +1,108 @@
 package com.example.benchmark;
 
-import com.example.MainApp;
-import com.example.model.DataModel;
 import com.example.parser.ParserService;
+import com.example.parser.engine.ExecutionMode;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.StackProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
-import org.springframework.context.ConfigurableApplicationContext;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
-@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
-@OutputTimeUnit(TimeUnit.MILLISECONDS)
+/**
+ * Матрица batchSize x threads x strategy. Счёт - батчи в секунду, поэтому результаты
+ * с разным batchSize сравниваются только между собой.
+ * threads влияет на FORK_JOIN (parallelism выделенного пула) и стратегии движка (размер пула
+ * для PLATFORM, лимит конкурентности для VIRTUAL и STRUCTURED), для остальных его можно
+ * зафиксировать: -p threads=8.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
 @State(Scope.Benchmark)
 @Warmup(iterations = 3, time = 1)
 @Measurement(iterations = 5, time = 1)
 @Fork(value = 2)
 public class ParserBenchmark {
 
-    private ConfigurableApplicationContext context;
+    public enum Strategy {
+        FOR_LOOP, STREAM, PARALLEL_STREAM, PUBLISHER,
+        // Параллельный стрим на выделенном ForkJoinPool с ManagedBlocker
+        FORK_JOIN,
+        // parseData целиком: движок + запись через BatchWriter в in-memory репозиторий
+        ENGINE_PLATFORM, ENGINE_VIRTUAL, ENGINE_STRUCTURED
+    }
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    @Param({"8", "64"})
+    private int threads;
+
+    @Param
+    private Strategy strategy;
+
+    private BenchmarkFixture fixture;
     private ParserService parserService;
 
     @Setup(Level.Trial)
     public void setup() {
-        System.setProperty("spring.profiles.active", "benchmark");
-        context = org.springframework.boot.SpringApplication.run(MainApp.class);
-        parserService = context.getBean(ParserService.class);
+        ExecutionMode mode = switch (strategy) {
+            case ENGINE_VIRTUAL -> ExecutionMode.VIRTUAL;
+            case ENGINE_STRUCTURED -> ExecutionMode.STRUCTURED;
+            default -> ExecutionMode.PLATFORM;
+        };
+        fixture = BenchmarkFixture.of(mode, threads, Duration.ofMillis(5));
+        parserService = fixture.parserService();
     }
 
     @TearDown(Level.Trial)
     public void tearDown() {
-        if (context != null) {
-            context.close();
+        if (fixture != null) {
+            fixture.close();
         }
     }
 
     @Benchmark
-    @OperationsPerInvocation(100)
-    public void benchmarkForLoop(Blackhole bh) {
-        List<DataModel> result = parserService.parseWithForLoop(100);
-        bh.consume(result);
-    }
-
-    @Benchmark
-    @OperationsPerInvocation(100)
-    public void benchmarkStream(Blackhole bh) {
-        List<DataModel> result = parserService.parseWithStream(100);
-        bh.consume(result);
-    }
-
-    @Benchmark
-    @OperationsPerInvocation(100)
-    public void benchmarkParallelStream(Blackhole bh) {
-        List<DataModel> result = parserService.parseWithParallelStream(100);
-        bh.consume(result);
+    public void parse(Blackhole bh) throws InterruptedException {
+        switch (strategy) {
+            case FOR_LOOP -> bh.consume(parserService.parseWithForLoop(batchSize));
+            case STREAM -> bh.consume(parserService.parseWithStream(batchSize));
+            case PARALLEL_STREAM -> bh.consume(parserService.parseWithParallelStream(batchSize));
+            case FORK_JOIN -> bh.consume(parserService.parseWithForkJoin(batchSize));
+            case PUBLISHER -> {
+                BlackholeSubscriber subscriber = new BlackholeSubscriber(bh, 16);
+                parserService.parseAsPublisher(batchSize).subscribe(subscriber);
+                subscriber.await();
+            }
+            case ENGINE_PLATFORM, ENGINE_VIRTUAL, ENGINE_STRUCTURED -> {
+                parserService.parseData(batchSize);
+                bh.consume(fixture.repository().savedRows());
+            }
+        }
     }
 
-    public static void main(String[] args) throws RunnerException {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Files.createDirectories(Path.of("benchmark-results"));
+        // Аргументы командной строки (-p, -f, -wi ...) переопределяют значения по умолчанию
         Options opt = new OptionsBuilder()
-                .include(ParserBenchmark.class.getSimpleName())
+                .parent(new CommandLineOptions(args))
+                .include(ParserBenchmark.class.getName() + "\\.")  // иначе совпадёт и CompleteParserBenchmark
+                .addProfiler(GCProfiler.class)
+                .addProfiler(StackProfiler.class)
                 .result("benchmark-results/parser-benchmark.json")
                 .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
                 .build();
 
         new Runner(opt).run();
     }
-}
\ No newline at end of file
+}
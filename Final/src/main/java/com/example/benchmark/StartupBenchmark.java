@@ -0,0 +1,183 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Время от запуска JVM с MainApp до первого завершённого parseData и RSS процесса в этот момент.
+ * NORMAL - исполняемый jar как есть, FAST - AOT + AppCDS из scripts/fast-startup.sh build.
+ * Каждый вызов - отдельный процесс; по умолчанию H2 в памяти, чтобы мерить старт, а не БД.
+ *
+ * RSS и время до конца refresh контекста отдаёт {@link Footprint}; при запуске из benchmarks.jar
+ * его нужно подключить явно: -prof com.example.benchmark.StartupBenchmark$Footprint.
+ * -Dstartup.target - каталог сборки (target), -Dstartup.args - аргументы приложения через пробел.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+public class StartupBenchmark {
+
+    public enum LaunchMode {
+        NORMAL, FAST
+    }
+
+    private static final String FIRST_PARSE = "Parsing completed";
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in [\\d.]+ seconds \\(process running for ([\\d.]+)\\)");
+    private static final String DEFAULT_ARGS = "--spring.datasource.url=jdbc:h2:mem:startup;NON_KEYWORDS=VALUE "
+            + "--spring.datasource.username=sa --spring.datasource.password= --server.port=0";
+
+    @Param({"NORMAL", "FAST"})
+    private LaunchMode mode;
+
+    private List<String> command;
+    private Process process;
+
+    // Каждая итерация - один запуск; значения последнего забирает Footprint
+    private static volatile long lastRssMb = -1;
+    private static volatile long lastContextStartedMs = -1;
+
+    /**
+     * VmRSS в момент первого parseData и uptime JVM к концу refresh контекста. Не @AuxCounters:
+     * счётчики EVENTS суммируются по итерациям, а здесь нужно среднее по запускам.
+     */
+    public static class Footprint implements InternalProfiler {
+
+        @Override
+        public String getDescription() {
+            return "RSS and context refresh time of the launched MainApp";
+        }
+
+        @Override
+        public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+            lastRssMb = -1;
+            lastContextStartedMs = -1;
+        }
+
+        @Override
+        public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                           IterationParams iterationParams,
+                                                           IterationResult result) {
+            return List.of(
+                    new ScalarResult("rss", lastRssMb, "MB", AggregationPolicy.AVG),
+                    new ScalarResult("contextStarted", lastContextStartedMs, "ms", AggregationPolicy.AVG));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path target = Path.of(System.getProperty("startup.target", "target"));
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        command = new ArrayList<>(List.of(java));
+        if (mode == LaunchMode.FAST) {
+            Path fastDir = target.resolve("fast-startup");
+            Path archive = fastDir.resolve("app.jsa");
+            if (!Files.exists(archive)) {
+                throw new IllegalStateException("No CDS archive in " + fastDir + ", run scripts/fast-startup.sh build");
+            }
+            command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                    "-jar", findJar(fastDir, "-fast-startup.jar").toString()));
+        } else {
+            command.addAll(List.of("-jar", findJar(target, ".jar").toString()));
+        }
+        command.addAll(Arrays.asList(System.getProperty("startup.args", DEFAULT_ARGS).split(" ")));
+    }
+
+    @Benchmark
+    public void timeToFirstParse() throws IOException {
+        process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Matcher started = STARTED.matcher(line);
+            if (started.find()) {
+                lastContextStartedMs = (long) (Double.parseDouble(started.group(1)) * 1000);
+            }
+            if (line.contains(FIRST_PARSE)) {
+                lastRssMb = rssMb(process.pid());
+                return;
+            }
+        }
+        throw new IllegalStateException("MainApp exited with " + waitFor(process) + " before the first parse");
+    }
+
+    // Остановка процесса не входит в замер
+    @TearDown(Level.Invocation)
+    public void stop() {
+        if (process != null) {
+            process.destroyForcibly();
+            waitFor(process);
+            process = null;
+        }
+    }
+
+    private static Path findJar(Path dir, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("performance-analysis-"))
+                    .filter(file -> file.getFileName().toString().endsWith(suffix))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar in " + dir + ", run mvn package"));
+        }
+    }
+
+    // Только Linux; на других ОС -1
+    private static long rssMb(long pid) {
+        try (Stream<String> lines = Files.lines(Path.of("/proc", Long.toString(pid), "status"))) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int waitFor(Process process) {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StartupBenchmark.class.getSimpleName())
+                .addProfiler(Footprint.class)
+                .result("benchmark-results/startup-benchmark.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
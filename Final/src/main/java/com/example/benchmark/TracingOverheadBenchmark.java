@@ -0,0 +1,105 @@
+package com.example.benchmark;
+
+import com.example.config.OpenTelemetryConfig;
+import com.example.config.TracingProperties;
+import com.example.tracing.RecordTracer;
+import com.example.tracing.TracingMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы трассировки на одну запись для каждого {@link TracingMode}.
+ * Экспортёр пустой, поэтому измеряется только создание спанов, сэмплинг и процессоры.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2)
+public class TracingOverheadBenchmark {
+
+    private static final int RECORDS = 100;
+
+    @Param({"FULL", "RATIO", "TAIL", "BATCH_ONLY"})
+    private TracingMode mode;
+
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private RecordTracer recordTracer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TracingProperties tracing = new TracingProperties();
+        tracing.setMode(mode);
+
+        tracerProvider = OpenTelemetryConfig.tracerProvider(tracing, SpanExporter.composite()).build();
+        tracer = tracerProvider.get("benchmark");
+        recordTracer = new RecordTracer(tracer, mode, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void tracedBatch(Blackhole bh) {
+        Span batchSpan = tracer.spanBuilder("parseData")
+                .setAttribute("batch.size", RECORDS)
+                .startSpan();
+        try {
+            for (int i = 0; i < RECORDS; i++) {
+                bh.consume(recordTracer.traceRecord(batchSpan, i, this::parse));
+            }
+        } finally {
+            batchSpan.end();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void untracedBatch(Blackhole bh) {
+        for (int i = 0; i < RECORDS; i++) {
+            bh.consume(work());
+        }
+    }
+
+    private long parse() {
+        Span span = recordTracer.startParseSpan();
+        try {
+            return work();
+        } finally {
+            span.end();
+        }
+    }
+
+    private long work() {
+        Blackhole.consumeCPU(64);
+        return System.nanoTime();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TracingOverheadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .result("benchmark-results/tracing-overhead.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
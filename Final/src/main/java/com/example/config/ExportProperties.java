@@ -0,0 +1,21 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+
+    /**
+     * Записей на одну keyset-страницу: одна страница - один запрос и одна короткая транзакция
+     */
+    private int pageSize = 1000;
+
+    /**
+     * Окно выгрузки по умолчанию для /api/data/recent
+     */
+    private Duration defaultWindow = Duration.ofDays(1);
+}
@@ -1,5 +1,12 @@
 package com.example.config;
 
+import com.example.tracing.RecordTracer;
+import com.example.tracing.RingBufferSpanExporter;
+import com.example.tracing.SlowOrFailedSpanProcessor;
+import com.example.tracing.SpanRingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Tracer;
@@ -9,29 +16,55 @@ import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.SpanLimits;
+import io.opentelemetry.sdk.trace.SpanProcessor;
 import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
 import io.opentelemetry.semconv.ResourceAttributes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class OpenTelemetryConfig {
 
     @Bean
-    public OpenTelemetry openTelemetry() {
+    public SpanRingBuffer spanRingBuffer(TracingProperties tracing, MeterRegistry meterRegistry) {
+        SpanRingBuffer buffer = new SpanRingBuffer(tracing.getStore().getCapacity());
+
+        Gauge.builder("tracing.store.size", buffer, SpanRingBuffer::size)
+                .description("Spans currently held in the in-process span store")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("tracing.store.spans", buffer, SpanRingBuffer::written)
+                .description("Spans written to the in-process span store")
+                .register(meterRegistry);
+
+        return buffer;
+    }
+
+    @Bean
+    public OpenTelemetry openTelemetry(TracingProperties tracing, SpanRingBuffer spanRingBuffer) {
         Resource resource = Resource.getDefault()
                 .merge(Resource.create(Attributes.of(
                         ResourceAttributes.SERVICE_NAME, "performance-analysis",
                         ResourceAttributes.DEPLOYMENT_ENVIRONMENT, "development"
                 )));
 
-        // OTLP exporter для Jaeger
-        OtlpGrpcSpanExporter spanExporter = OtlpGrpcSpanExporter.builder()
-                .setEndpoint("http://localhost:4317")
-                .build();
+        List<SpanExporter> exporters = new ArrayList<>();
+        exporters.add(new RingBufferSpanExporter(spanRingBuffer));
+        if (tracing.isOtlpEnabled()) {
+            // OTLP exporter для Jaeger
+            exporters.add(OtlpGrpcSpanExporter.builder()
+                    .setEndpoint(tracing.getOtlpEndpoint())
+                    .build());
+        }
 
-        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
-                .addSpanProcessor(BatchSpanProcessor.builder(spanExporter).build())
+        SdkTracerProvider tracerProvider = tracerProvider(tracing, exporters)
                 .setResource(resource)
                 .build();
 
@@ -41,8 +74,46 @@ public class OpenTelemetryConfig {
                 .buildAndRegisterGlobal();
     }
 
+    /**
+     * Сэмплер, лимиты и цепочка процессоров для выбранного режима трассировки.
+     * Используется также бенчмарком накладных расходов трассировки.
+     */
+    public static SdkTracerProviderBuilder tracerProvider(TracingProperties tracing, SpanExporter spanExporter) {
+        return tracerProvider(tracing, List.of(spanExporter));
+    }
+
+    /**
+     * У каждого экспортёра свой BatchSpanProcessor: недоступный коллектор переполняет
+     * только свою очередь и не мешает локальному буферу.
+     */
+    public static SdkTracerProviderBuilder tracerProvider(TracingProperties tracing, List<SpanExporter> spanExporters) {
+        SdkTracerProviderBuilder builder = SdkTracerProvider.builder();
+        SpanProcessor processor = SpanProcessor.composite(spanExporters.stream()
+                .map(exporter -> (SpanProcessor) BatchSpanProcessor.builder(exporter).build())
+                .toList());
+
+        switch (tracing.getMode()) {
+            case RATIO -> builder.setSampler(
+                    Sampler.parentBased(Sampler.traceIdRatioBased(tracing.getSampleRatio())));
+            case TAIL -> processor = new SlowOrFailedSpanProcessor(
+                    processor, tracing.getSlowRecordThreshold(), RecordTracer.RECORD_SPAN_NAMES);
+            case BATCH_ONLY -> builder.setSpanLimits(SpanLimits.builder()
+                    .setMaxNumberOfEvents(tracing.getMaxEventsPerSpan())
+                    .build());
+            case FULL -> {
+            }
+        }
+
+        return builder.addSpanProcessor(processor);
+    }
+
     @Bean
     public Tracer tracer(OpenTelemetry openTelemetry) {
         return openTelemetry.getTracer("performance-analysis", "1.0.0");
     }
-}
\ No newline at end of file
+
+    @Bean
+    public RecordTracer recordTracer(Tracer tracer, TracingProperties tracing, MeterRegistry meterRegistry) {
+        return new RecordTracer(tracer, tracing.getMode(), meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.config;
+
+import com.example.parser.engine.ParseEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ParseEngineConfig {
+
+    @Bean(destroyMethod = "close")
+    public ParseEngine parseEngine(ParserProperties properties, MeterRegistry meterRegistry) {
+        return ParseEngine.create(properties.getEngine(), meterRegistry);
+    }
+}
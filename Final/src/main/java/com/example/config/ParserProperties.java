@@ -0,0 +1,318 @@
+package com.example.config;
+
+import com.example.parser.WriteMode;
+import com.example.repository.PartitionInterval;
+import com.example.parser.engine.ExecutionMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "parser")
+public class ParserProperties {
+
+    /**
+     * Верхняя граница имитации обработки одной записи (0 - без задержки)
+     */
+    private Duration maxSimulatedDelay = Duration.ofMillis(5);
+
+    private final Persistence persistence = new Persistence();
+    private final Engine engine = new Engine();
+    private final Streaming streaming = new Streaming();
+    private final ForkJoin forkJoin = new ForkJoin();
+    private final Aggregates aggregates = new Aggregates();
+    private final QueryCache queryCache = new QueryCache();
+    private final Scheduling scheduling = new Scheduling();
+
+    @Data
+    public static class Persistence {
+        /**
+         * DIRECT - parseData ждёт коммита в БД, JOURNAL - только записи в локальный журнал
+         */
+        private WriteMode mode = WriteMode.DIRECT;
+
+        private final Journal journal = new Journal();
+
+        private final Limiter limiter = new Limiter();
+
+        private final Partitioning partitioning = new Partitioning();
+
+        /**
+         * Ёмкость очереди между парсером и writer-потоками.
+         * При заполнении парсер блокируется (backpressure).
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Максимальное число записей в одном flush, совпадает с hibernate.jdbc.batch_size
+         */
+        private int batchSize = 50;
+
+        /**
+         * Максимальное время ожидания неполного батча перед flush
+         */
+        private Duration maxBatchAge = Duration.ofMillis(200);
+
+        /**
+         * Количество потоков, выполняющих запись в БД. Держим не меньше потолка лимитера:
+         * параллельность записи должен ограничивать он, а не число потоков
+         */
+        private int writerThreads = 18;
+
+        /**
+         * Повторы flush после временной ошибки (отказ лимитера, таймаут пула); пауза удваивается
+         */
+        private int flushRetries = 3;
+
+        private Duration flushRetryBackoff = Duration.ofMillis(100);
+
+        /**
+         * Батчи от этого размера пишутся через COPY (только PostgreSQL), меньшие - через JPA.
+         * Когда в очереди накопилось не меньше copyThreshold записей, writer сбрасывает их
+         * одним батчем такого размера, а не по batchSize; 0 - COPY выключен
+         */
+        private int copyThreshold = 1000;
+    }
+
+    @Data
+    public static class Journal {
+        /**
+         * Каталог сегментов и файла checkpoint
+         */
+        private String directory = "data/journal";
+
+        /**
+         * Размер одного memory-mapped сегмента
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Максимум сегментов на диске; при достижении запись ждёт, пока drainer освободит место
+         */
+        private int maxSegments = 16;
+
+        /**
+         * Записей в одной транзакции drainer'а; не меньше copyThreshold, чтобы шёл COPY
+         */
+        private int drainBatchSize = 5000;
+
+        /**
+         * Пауза drainer'а, когда журнал вычитан до конца, и начальная пауза после ошибки БД
+         */
+        private Duration drainInterval = Duration.ofMillis(200);
+
+        /**
+         * Как часто страницы журнала сбрасываются на диск (msync). Запись переживает падение
+         * процесса сразу, падение ОС - после ближайшего сброса
+         */
+        private Duration forceInterval = Duration.ofSeconds(1);
+
+        /**
+         * Сколько при остановке дописывать журнал в БД; остаток будет воспроизведён при старте
+         */
+        private Duration shutdownDrainTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Limiter {
+        /**
+         * false - запись в БД без ограничения параллельности
+         */
+        private boolean enabled = true;
+
+        private int initialLimit = 4;
+
+        private int minLimit = 1;
+
+        /**
+         * Потолок лимита; 0 - размер пула Hikari за вычетом poolReserve
+         */
+        private int maxLimit = 0;
+
+        /**
+         * Соединения пула, оставляемые чтению (выгрузка, агрегаты, API)
+         */
+        private int poolReserve = 2;
+
+        /**
+         * Во сколько раз задержка может превысить долгосрочную, прежде чем лимит начнёт снижаться
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * Доля нового значения при сглаживании лимита
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Окно (в замерах) долгосрочной средней задержки
+         */
+        private int longWindow = 100;
+
+        /**
+         * Сколько запись ждёт свободного слота, прежде чем батч будет отклонён
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Partitioning {
+        /**
+         * Range-партиции parsed_data по timestamp; действует только на PostgreSQL
+         * и только если таблица создаётся заново
+         */
+        private boolean enabled = true;
+
+        private PartitionInterval interval = PartitionInterval.DAILY;
+
+        /**
+         * Сколько партиций создаётся заранее сверх текущей
+         */
+        private int premake = 3;
+
+        /**
+         * Партиции, целиком старше этого срока, удаляются (0 - хранить всё)
+         */
+        private Duration retention = Duration.ofDays(30);
+
+        /**
+         * Период создания/удаления партиций (ISO-8601, читается и из @Scheduled)
+         */
+        private Duration maintenanceInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Engine {
+        /**
+         * Модель исполнения parseData: пул платформенных потоков, виртуальный поток на запись
+         * или структурированный батч с дедлайном
+         */
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+        /**
+         * Размер пула для режима PLATFORM, по умолчанию - число ядер
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Максимум одновременно обрабатываемых записей для VIRTUAL и STRUCTURED
+         */
+        private int maxConcurrency = 1000;
+
+        /**
+         * Дедлайн батча для режима STRUCTURED, по истечении незавершённые записи отменяются
+         */
+        private Duration batchDeadline = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Streaming {
+        /**
+         * Начиная с этого размера parseData не материализует батч, а прокачивает его потоком
+         */
+        private int threshold = 10_000;
+
+        /**
+         * Максимум записей одного потока между парсингом и коммитом
+         */
+        private int window = 256;
+
+        /**
+         * Количество параллельных потоков, на которые делится большой батч
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class ForkJoin {
+        /**
+         * Целевое число активных воркеров выделенного ForkJoinPool для parseWithForkJoin
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Потолок потоков с учётом компенсации заблокированных в ManagedBlocker воркеров
+         */
+        private int maxPoolSize = 256;
+    }
+
+    @Data
+    public static class Scheduling {
+        /**
+         * false - фиксированные initialBatchSize и initialInterval, как раньше (100 записей раз в 5 с)
+         */
+        private boolean adaptive = true;
+
+        private int initialBatchSize = 100;
+        private int minBatchSize = 10;
+        private int maxBatchSize = 5000;
+
+        /**
+         * Пауза между окончанием одного прогона и началом следующего
+         */
+        private Duration initialInterval = Duration.ofSeconds(5);
+        private Duration minInterval = Duration.ofMillis(500);
+        private Duration maxInterval = Duration.ofSeconds(30);
+
+        /**
+         * Целевой p99 parser.duration (время одного батча)
+         */
+        private Duration targetP99 = Duration.ofSeconds(2);
+
+        /**
+         * Целевая доля занятых соединений Hikari (active / max)
+         */
+        private double targetPoolUtilization = 0.75;
+
+        /**
+         * Аддитивный рост батча и сокращение паузы, пока система в норме
+         */
+        private int additiveStep = 50;
+        private Duration intervalStep = Duration.ofMillis(250);
+
+        /**
+         * Множитель батча при перегрузке, пауза делится на него же
+         */
+        private double decreaseFactor = 0.5;
+
+        /**
+         * Прогонов после снижения, в течение которых p99 не учитывается: скользящее окно
+         * таймера ещё содержит медленные батчи, и без паузы батч схлопнулся бы до минимума
+         */
+        private int cooldownRuns = 3;
+    }
+
+    @Data
+    public static class Aggregates {
+        /**
+         * Период сверки агрегатов с БД (ISO-8601, читается и из @Scheduled)
+         */
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+
+        /**
+         * Расхождение счётчика категории с БД, после которого агрегат пересобирается.
+         * Должно перекрывать записи, закоммиченные, но ещё не доставленные событием
+         */
+        private long driftTolerance = 500;
+
+        /**
+         * Относительная погрешность квантилей
+         */
+        private double relativeAccuracy = 0.01;
+    }
+
+    @Data
+    public static class QueryCache {
+        /**
+         * Максимум категорий в кэше среднего
+         */
+        private long maxSize = 100;
+
+        /**
+         * Время жизни записи; ограничивает устаревание при записях в обход парсера
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.config;
+
+import com.example.parser.AdaptiveBatchController;
+import com.example.parser.ParserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Плановый парсинг: размер батча и паузу между прогонами задаёт {@link AdaptiveBatchController}
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ParserSchedulingConfig implements SchedulingConfigurer {
+
+    private final ParserService parserService;
+    private final AdaptiveBatchController controller;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::scheduledParsing, controller);
+    }
+
+    private void scheduledParsing() {
+        try {
+            parserService.parseData(controller.batchSize());
+        } finally {
+            // Упавший прогон тоже попадает в parser.duration и должен влиять на решение
+            controller.adjust();
+        }
+    }
+}
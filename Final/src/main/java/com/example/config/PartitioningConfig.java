@@ -0,0 +1,19 @@
+package com.example.config;
+
+import com.example.repository.PartitionManager;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PartitioningConfig {
+
+    /**
+     * Партиционированная parsed_data должна появиться до schema update Hibernate,
+     * иначе ddl-auto=update создаст обычную таблицу
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor partitionsBeforeJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor(PartitionManager.class);
+    }
+}
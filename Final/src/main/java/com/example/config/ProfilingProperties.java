@@ -0,0 +1,31 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "profiling")
+public class ProfilingProperties {
+
+    /**
+     * Куда пишутся .jfr файлы записей, запущенных через /actuator/jfr
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/jfr";
+
+    /**
+     * Длительность записи, если она не задана в запросе
+     */
+    private Duration defaultDuration = Duration.ofMinutes(1);
+
+    /**
+     * Верхняя граница длительности: забытая запись не должна писать бесконечно
+     */
+    private Duration maxDuration = Duration.ofMinutes(10);
+
+    /**
+     * Строк в каждом разделе сводки
+     */
+    private int top = 10;
+}
@@ -0,0 +1,47 @@
+package com.example.config;
+
+import com.example.tracing.TracingMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    private TracingMode mode = TracingMode.FULL;
+
+    /**
+     * Доля сэмплируемых трейсов для режима RATIO
+     */
+    private double sampleRatio = 0.1;
+
+    /**
+     * Порог, начиная с которого спан записи считается медленным (режим TAIL)
+     */
+    private Duration slowRecordThreshold = Duration.ofMillis(10);
+
+    /**
+     * Лимит событий на спан батча в режиме BATCH_ONLY (по событию на запись)
+     */
+    private int maxEventsPerSpan = 2048;
+
+    /**
+     * Экспорт в коллектор по OTLP (Jaeger) в дополнение к локальному буферу;
+     * без коллектора экспортёр лишь логирует ошибки отправки, буфер продолжает работать
+     */
+    private boolean otlpEnabled = true;
+
+    private String otlpEndpoint = "http://localhost:4317";
+
+    private final Store store = new Store();
+
+    @Data
+    public static class Store {
+        /**
+         * Спанов в локальном буфере (округляется до степени двойки), по 64 байта вне heap на спан
+         */
+        private int capacity = 65_536;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.controller;
+
+import com.example.config.ExportProperties;
+import com.example.export.DataExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/data")
+@RequiredArgsConstructor
+public class DataExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final DataExportService exportService;
+    private final ExportProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Записи за окно (по умолчанию сутки) построчным JSON. Ответ пишется по мере чтения
+     * страниц, поэтому ни сервер, ни клиент не держат выгрузку целиком.
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<StreamingResponseBody> recent(@RequestParam(required = false) Duration window) {
+        LocalDateTime since = LocalDateTime.now().minus(window != null ? window : properties.getDefaultWindow());
+        ObjectWriter writer = objectMapper.writer();
+
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            exportService.exportSince(since, data -> {
+                buffered.write(writer.writeValueAsBytes(data));
+                buffered.write('\n');
+            });
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
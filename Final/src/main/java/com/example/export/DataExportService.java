@@ -0,0 +1,110 @@
+package com.example.export;
+
+import com.example.config.ExportProperties;
+import com.example.model.DataModel;
+import com.example.repository.DataRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка записей страницами по keyset-курсору (timestamp, id) вместо одного большого списка.
+ * Каждая страница читается потоком в своей read-only транзакции, после неё persistence context
+ * очищается, так что память не зависит от объёма выгрузки.
+ */
+@Service
+@Slf4j
+public class DataExportService {
+
+    @FunctionalInterface
+    public interface RecordSink {
+        void accept(DataModel data) throws IOException;
+    }
+
+    private final DataRepository dataRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExportProperties properties;
+    private final Counter exportedRows;
+
+    public DataExportService(DataRepository dataRepository,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ExportProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.dataRepository = dataRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.exportedRows = Counter.builder("export.rows")
+                .description("Rows streamed by data exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Передаёт в sink все записи с timestamp >= since в порядке (timestamp, id).
+     *
+     * @return количество выгруженных записей
+     */
+    public long exportSince(LocalDateTime since, RecordSink sink) throws IOException {
+        Cursor cursor = new Cursor(since, 0);
+        long total = 0;
+        int page;
+        do {
+            page = readPage(cursor, sink);
+            total += page;
+            exportedRows.increment(page);
+        } while (page == properties.getPageSize());
+
+        log.debug("Exported {} records since {}", total, since);
+        return total;
+    }
+
+    private int readPage(Cursor cursor, RecordSink sink) throws IOException {
+        try {
+            Integer read = readOnlyTransaction.execute(status -> {
+                int count = 0;
+                try (Stream<DataModel> rows = dataRepository.streamPageAfter(
+                        cursor.timestamp, cursor.id, PageRequest.of(0, properties.getPageSize()))) {
+                    for (DataModel data : (Iterable<DataModel>) rows::iterator) {
+                        sink.accept(data);
+                        cursor.timestamp = data.getTimestamp();
+                        cursor.id = data.getId();
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    // При open-in-view контекст живёт весь запрос - не копим в нём сущности
+                    entityManager.clear();
+                }
+                return count;
+            });
+            return read == null ? 0 : read;
+        } catch (UncheckedIOException e) {
+            // Клиент отключился или запись в ответ не удалась
+            throw e.getCause();
+        }
+    }
+
+    private static final class Cursor {
+        private LocalDateTime timestamp;
+        private long id;
+
+        private Cursor(LocalDateTime timestamp, long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+}
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class DataModel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parsed_data_seq")
+    @SequenceGenerator(name = "parsed_data_seq", sequenceName = "parsed_data_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
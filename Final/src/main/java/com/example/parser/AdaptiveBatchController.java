@@ -0,0 +1,179 @@
+package com.example.parser;
+
+import com.example.config.ParserProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD-регулятор плановых прогонов парсера. После каждого прогона смотрит p99 parser.duration
+ * и загрузку пула Hikari: если всё в пределах цели - батч растёт на additiveStep, а пауза
+ * сокращается; при перегрузке батч умножается на decreaseFactor, пауза делится на него.
+ * Он же служит Trigger для планировщика, то есть сам задаёт время следующего прогона.
+ */
+@Component
+@Slf4j
+public class AdaptiveBatchController implements Trigger {
+
+    static final String PARSE_TIMER = "parser.duration";
+    static final String POOL_ACTIVE = "hikaricp.connections.active";
+    static final String POOL_MAX = "hikaricp.connections.max";
+    static final String POOL_PENDING = "hikaricp.connections.pending";
+
+    private final MeterRegistry meterRegistry;
+    private final ParserProperties.Scheduling settings;
+
+    private volatile int batchSize;
+    private volatile Duration interval;
+    private volatile double lastP99Millis;
+    private volatile double lastPoolUtilization;
+    private int cooldown;
+
+    private Counter increases;
+    private Counter decreases;
+    private Counter holds;
+
+    public AdaptiveBatchController(MeterRegistry meterRegistry, ParserProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.settings = properties.getScheduling();
+        this.batchSize = settings.getInitialBatchSize();
+        this.interval = settings.getInitialInterval();
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("parser.adaptive.batch.size", this, AdaptiveBatchController::batchSize)
+                .description("Records per scheduled parse run chosen by the controller")
+                .register(meterRegistry);
+
+        TimeGauge.builder("parser.adaptive.interval", this, TimeUnit.MILLISECONDS,
+                        controller -> controller.interval().toMillis())
+                .description("Delay between scheduled parse runs chosen by the controller")
+                .register(meterRegistry);
+
+        Gauge.builder("parser.adaptive.observed.p99", this, controller -> controller.lastP99Millis)
+                .description("parser.duration p99 in ms seen at the last decision")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        Gauge.builder("parser.adaptive.observed.pool.utilization", this, controller -> controller.lastPoolUtilization)
+                .description("Hikari active/max seen at the last decision")
+                .register(meterRegistry);
+
+        increases = decisions("increase");
+        decreases = decisions("decrease");
+        holds = decisions("hold");
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public Duration interval() {
+        return interval;
+    }
+
+    /**
+     * Семантика fixed delay: первый прогон сразу, следующий - через interval после окончания
+     */
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        return lastCompletion == null ? triggerContext.getClock().instant() : lastCompletion.plus(interval);
+    }
+
+    /**
+     * Вызывается после каждого планового прогона
+     */
+    public synchronized void adjust() {
+        if (!settings.isAdaptive()) {
+            return;
+        }
+
+        double p99 = parseP99Millis();
+        double utilization = poolUtilization();
+        boolean poolSaturated = utilization > settings.getTargetPoolUtilization() || poolPending() > 0;
+        boolean slow = cooldown == 0 && p99 > settings.getTargetP99().toMillis();
+        lastP99Millis = p99;
+        lastPoolUtilization = utilization;
+
+        if (cooldown > 0) {
+            cooldown--;
+        }
+
+        if (poolSaturated || slow) {
+            batchSize = Math.max(settings.getMinBatchSize(), (int) (batchSize * settings.getDecreaseFactor()));
+            interval = min(settings.getMaxInterval(),
+                    Duration.ofMillis((long) (interval.toMillis() / settings.getDecreaseFactor())));
+            cooldown = settings.getCooldownRuns();
+            decreases.increment();
+            log.info("Backing off: p99={}ms, pool utilization={}, batch size -> {}, interval -> {}",
+                    Math.round(p99), String.format("%.2f", utilization), batchSize, interval);
+        } else if (batchSize < settings.getMaxBatchSize() || interval.compareTo(settings.getMinInterval()) > 0) {
+            batchSize = Math.min(settings.getMaxBatchSize(), batchSize + settings.getAdditiveStep());
+            interval = max(settings.getMinInterval(), interval.minus(settings.getIntervalStep()));
+            increases.increment();
+            log.debug("Probing: batch size -> {}, interval -> {}", batchSize, interval);
+        } else {
+            holds.increment();
+        }
+    }
+
+    private double parseP99Millis() {
+        Timer timer = meterRegistry.find(PARSE_TIMER).timer();
+        if (timer == null) {
+            return 0;
+        }
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        // Без опубликованного p99 ориентируемся на максимум окна
+        return timer.max(TimeUnit.MILLISECONDS);
+    }
+
+    // Сумма по всем пулам; без Hikari (бенчмарки, тесты) пул считается свободным
+    private double poolUtilization() {
+        double max = sum(POOL_MAX);
+        return max > 0 ? sum(POOL_ACTIVE) / max : 0;
+    }
+
+    private double poolPending() {
+        return sum(POOL_PENDING);
+    }
+
+    private double sum(String gauge) {
+        return meterRegistry.find(gauge).gauges().stream()
+                .mapToDouble(Gauge::value)
+                .filter(Double::isFinite)
+                .sum();
+    }
+
+    private Counter decisions(String decision) {
+        return Counter.builder("parser.adaptive.decisions")
+                .description("Controller decisions after each scheduled run")
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
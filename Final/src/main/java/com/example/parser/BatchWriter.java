@@ -0,0 +1,266 @@
+package com.example.parser;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.repository.DataBatchRepository;
+import com.example.repository.WriteRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стадия записи между парсером и БД: парсер кладёт записи в ограниченную очередь,
+ * writer-потоки собирают их в батчи и сбрасывают по размеру или по возрасту батча.
+ * Если в очереди уже накопилось copyThreshold записей, они уходят одним большим батчем,
+ * который репозиторий пишет через COPY.
+ */
+@Component
+@Slf4j
+public class BatchWriter implements RecordWriter {
+
+    private final DataBatchRepository batchRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParserProperties.Persistence settings;
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    private Counter dbInserts;
+    private Counter failedFlushes;
+    private Counter retriedFlushes;
+    private DistributionSummary flushSize;
+    private Timer flushTimer;
+
+    public BatchWriter(DataBatchRepository batchRepository,
+                       MeterRegistry meterRegistry,
+                       ApplicationEventPublisher eventPublisher,
+                       ParserProperties properties) {
+        this.batchRepository = batchRepository;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.settings = properties.getPersistence();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        dbInserts = Counter.builder("db.inserts")
+                .description("Number of database inserts")
+                .register(meterRegistry);
+
+        failedFlushes = Counter.builder("db.flush.failures")
+                .description("Number of failed batch flushes")
+                .register(meterRegistry);
+
+        retriedFlushes = Counter.builder("db.flush.retries")
+                .description("Flush attempts repeated after a transient failure")
+                .register(meterRegistry);
+
+        flushSize = DistributionSummary.builder("db.flush.size")
+                .description("Rows written per flush")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        flushTimer = Timer.builder("db.flush.duration")
+                .description("Time taken to write one batch")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        Gauge.builder("db.write.queue.size", queue, BlockingQueue::size)
+                .description("Records waiting to be flushed")
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < settings.getWriterThreads(); i++) {
+            Thread writer = new Thread(this::writeLoop, "db-writer-" + i);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * Ставит запись в очередь. Блокируется, если очередь заполнена.
+     *
+     * @return future, завершающийся после коммита батча с этой записью
+     */
+    @Override
+    public CompletableFuture<Void> submit(DataModel data) {
+        return enqueue(new PendingWrite(data, null, 0, new CompletableFuture<>()));
+    }
+
+    /**
+     * В очереди лежит ссылка на слот батча; DataModel создаётся writer-потоком при сбросе
+     */
+    @Override
+    public CompletableFuture<Void> submit(DataBatch batch, int index) {
+        return enqueue(new PendingWrite(null, batch, index, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> enqueue(PendingWrite write) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Batch writer is stopped"));
+        }
+
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.done().completeExceptionally(e);
+        }
+        return write.done();
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(settings.getBatchSize());
+        long maxAgeNanos = settings.getMaxBatchAge().toNanos();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int limit = flushLimit();
+
+                // Добираем батч до размера или до истечения возраста первой записи
+                long deadline = System.nanoTime() + maxAgeNanos;
+                while (batch.size() < limit) {
+                    queue.drainTo(batch, limit - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= limit || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, e);
+                return;
+            }
+
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Размер очередного батча с учётом уже взятой первой записи
+     */
+    private int flushLimit() {
+        int copyThreshold = settings.getCopyThreshold();
+        if (copyThreshold > settings.getBatchSize() && queue.size() + 1 >= copyThreshold) {
+            return copyThreshold;
+        }
+        return settings.getBatchSize();
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<DataModel> records = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            records.add(write.entity());
+        }
+
+        try {
+            save(records);
+            dbInserts.increment(records.size());
+            flushSize.record(records.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(batch, e);
+            return;
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.error("Failed to flush batch of {} records", records.size(), e);
+            fail(batch, e);
+            return;
+        }
+
+        // Слушатели (агрегаты, кэши) видят батч раньше, чем вызывающий получит подтверждение
+        try {
+            eventPublisher.publishEvent(new DataFlushedEvent(records));
+        } catch (Exception e) {
+            log.warn("Flush listener failed for batch of {} records", records.size(), e);
+        }
+
+        for (PendingWrite write : batch) {
+            write.done().complete(null);
+        }
+    }
+
+    /**
+     * Повторяем с удваивающейся паузой только отказы до первой записи: лимитер не дал слот или пул
+     * не выдал соединение (CannotCreateTransactionException). После сбоя на INSERT у сущностей
+     * уже есть id и version, повтор через merge() вставил бы копии с новыми id
+     */
+    private void save(List<DataModel> records) throws InterruptedException {
+        long backoff = settings.getFlushRetryBackoff().toMillis();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                flushTimer.record(() -> batchRepository.saveBatch(records));
+                return;
+            } catch (WriteRejectedException | CannotCreateTransactionException e) {
+                if (attempt >= settings.getFlushRetries()) {
+                    throw e;
+                }
+                retriedFlushes.increment();
+                log.warn("Transient failure flushing {} records, retrying in {}ms: {}",
+                        records.size(), backoff, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    private void fail(List<PendingWrite> batch, Throwable cause) {
+        for (PendingWrite write : batch) {
+            write.done().completeExceptionally(cause);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        log.info("Stopping batch writer, {} records pending", queue.size());
+        running = false;
+        for (Thread writer : writers) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(60));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Записи, поставленные в очередь во время остановки
+        List<PendingWrite> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        fail(leftovers, new IllegalStateException("Batch writer is stopped"));
+    }
+
+    private record PendingWrite(DataModel data, DataBatch batch, int index, CompletableFuture<Void> done) {
+
+        DataModel entity() {
+            return data != null ? data : batch.toEntity(index);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.parser;
+
+/**
+ * Словарь категорий: в горячем пути категория хранится как int, строка берётся из словаря
+ * без конкатенации.
+ */
+public final class CategoryDictionary {
+
+    public static final int SIZE = 10;
+
+    private static final String[] NAMES = new String[SIZE];
+
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            NAMES[i] = ("CATEGORY_" + i).intern();
+        }
+    }
+
+    private CategoryDictionary() {
+    }
+
+    public static String name(int id) {
+        return NAMES[id];
+    }
+
+    public static int id(String name) {
+        for (int i = 0; i < SIZE; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown category: " + name);
+    }
+}
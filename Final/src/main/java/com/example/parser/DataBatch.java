@@ -0,0 +1,113 @@
+package com.example.parser;
+
+import com.example.model.DataModel;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Колоночное представление батча: примитивные массивы и общий байтовый буфер под payload.
+ * Слоты заполняются по индексу без аллокаций на запись, в том числе из разных потоков
+ * (каждый пишет свой индекс; видимость обеспечивает передача записи дальше - future или очередь).
+ * В {@link DataModel} запись превращается только на границе сохранения ({@link RecordWriter}).
+ */
+public class DataBatch {
+
+    /**
+     * Ссылка на запись батча для потоковой выдачи
+     */
+    public record Row(DataBatch batch, int index) {
+    }
+
+    /**
+     * "Sample data " + до 19 цифр
+     */
+    static final int MAX_PAYLOAD_LENGTH = 32;
+
+    private static final byte[] PAYLOAD_PREFIX = "Sample data ".getBytes(StandardCharsets.US_ASCII);
+
+    private final double[] values;
+    private final long[] timestamps;
+    private final long[] processingTimes;
+    private final int[] categoryIds;
+    private final byte[] payloadSlab;
+    private final int[] payloadLengths;
+
+    public DataBatch(int size) {
+        this.values = new double[size];
+        this.timestamps = new long[size];
+        this.processingTimes = new long[size];
+        this.categoryIds = new int[size];
+        this.payloadSlab = new byte[size * MAX_PAYLOAD_LENGTH];
+        this.payloadLengths = new int[size];
+    }
+
+    /**
+     * Заполняет слот index; payload формируется как "Sample data " + payloadNumber прямо в буфере.
+     */
+    public void set(int index, double value, long timestampMillis, long processingTime, int categoryId, long payloadNumber) {
+        values[index] = value;
+        timestamps[index] = timestampMillis;
+        processingTimes[index] = processingTime;
+        categoryIds[index] = categoryId;
+        payloadLengths[index] = writePayload(index * MAX_PAYLOAD_LENGTH, payloadNumber);
+    }
+
+    private int writePayload(int offset, long number) {
+        if (number < 0) {
+            throw new IllegalArgumentException("Payload number must be non-negative: " + number);
+        }
+        System.arraycopy(PAYLOAD_PREFIX, 0, payloadSlab, offset, PAYLOAD_PREFIX.length);
+        int start = offset + PAYLOAD_PREFIX.length;
+        int position = start;
+
+        // Цифры пишем с конца, затем разворачиваем
+        long remaining = number;
+        do {
+            payloadSlab[position++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = payloadSlab[i];
+            payloadSlab[i] = payloadSlab[j];
+            payloadSlab[j] = tmp;
+        }
+        return position - offset;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public int categoryId(int index) {
+        return categoryIds[index];
+    }
+
+    public long processingTime(int index) {
+        return processingTimes[index];
+    }
+
+    public String payload(int index) {
+        return new String(payloadSlab, index * MAX_PAYLOAD_LENGTH, payloadLengths[index], StandardCharsets.US_ASCII);
+    }
+
+    public DataModel toEntity(int index) {
+        DataModel data = new DataModel();
+        data.setData(payload(index));
+        data.setValue(values[index]);
+        data.setCategory(CategoryDictionary.name(categoryIds[index]));
+        data.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamps[index]), ZoneId.systemDefault()));
+        data.setProcessingTime(processingTimes[index]);
+        return data;
+    }
+}
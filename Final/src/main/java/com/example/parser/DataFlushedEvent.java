@@ -0,0 +1,11 @@
+package com.example.parser;
+
+import com.example.model.DataModel;
+
+import java.util.List;
+
+/**
+ * Публикуется {@link BatchWriter} после успешного коммита батча.
+ */
+public record DataFlushedEvent(List<DataModel> records) {
+}
@@ -1,30 +1,40 @@
 package com.example.parser;
 
-import com.example.model.DataModel;
-import com.example.repository.DataRepository;
+import com.example.config.ParserProperties;
+import com.example.parser.engine.ParseBatch;
+import com.example.parser.engine.ParseEngine;
+import com.example.profiling.ParseBatchEvent;
+import com.example.profiling.ParseRecordEvent;
+import com.example.stage.PipelineStage;
+import com.example.stage.StageRecorder;
+import com.example.tracing.RecordTracer;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 @Service
@@ -32,23 +42,26 @@ import java.util.stream.IntStream;
 @RequiredArgsConstructor
 public class ParserService {
 
-    private final DataRepository dataRepository;
+    private final RecordWriter recordWriter;
     private final MeterRegistry meterRegistry;
     private final Tracer tracer;
+    private final ParseEngine parseEngine;
+    private final ParserProperties properties;
+    private final RecordTracer recordTracer;
+    private final StageRecorder stageRecorder;
 
-    private ExecutorService executorService;
-
+    private ExecutorService streamExecutor;
+    private ForkJoinPool forkJoinPool;
     private Counter successfulParses;
     private Counter failedParses;
-    private Counter dbInserts;
     private Timer parseTimer;
 
     @PostConstruct
     public void init() {
-        // Инициализация ExecutorService
-        executorService = Executors.newFixedThreadPool(
-                Runtime.getRuntime().availableProcessors()
-        );
+        // Потоки publisher'ов большую часть времени ждут спроса, поэтому виртуальные
+        streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        forkJoinPool = createForkJoinPool(properties.getForkJoin());
+        new ExecutorServiceMetrics(forkJoinPool, "parser.forkjoin", Tags.empty()).bindTo(meterRegistry);
 
         // Инициализация метрик
         successfulParses = Counter.builder("parser.success")
@@ -59,21 +72,12 @@ public class ParserService {
                 .description("Number of failed parses")
                 .register(meterRegistry);
 
-        dbInserts = Counter.builder("db.inserts")
-                .description("Number of database inserts")
-                .register(meterRegistry);
-
         parseTimer = Timer.builder("parser.duration")
                 .description("Time taken for parsing")
                 .publishPercentiles(0.5, 0.95, 0.99)
                 .register(meterRegistry);
     }
 
-    @Scheduled(fixedDelay = 5000)
-    public void scheduledParsing() {
-        parseData(100); // Уменьшил с 1000 для тестирования
-    }
-
     public void parseData(int batchSize) {
         log.debug("Starting parsing of {} records", batchSize);
 
@@ -81,40 +85,26 @@ public class ParserService {
                 .setAttribute("batch.size", batchSize)
                 .startSpan();
 
+        ParseBatchEvent event = new ParseBatchEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             parseTimer.record(() -> {
-                List<CompletableFuture<Void>> futures = new ArrayList<>();
                 AtomicInteger successCount = new AtomicInteger();
                 AtomicInteger failureCount = new AtomicInteger();
 
-                for (int i = 0; i < batchSize; i++) {
-                    final int recordNumber = i;
-                    CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                        Span recordSpan = tracer.spanBuilder("parseRecord")
-                                .setAttribute("record.number", recordNumber)
-                                .startSpan();
-
-                        try {
-                            DataModel data = parseSingleRecord();
-                            saveToDatabase(data);
-                            successCount.incrementAndGet();
-                        } catch (Exception e) {
-                            failureCount.incrementAndGet();
-                            log.error("Failed to parse record {}", recordNumber, e);
-                            recordSpan.recordException(e);
-                        } finally {
-                            recordSpan.end();
-                        }
-                    }, executorService);
-                    futures.add(future);
+                event.batchSize = batchSize;
+                event.streaming = batchSize >= properties.getStreaming().getThreshold();
+                if (event.streaming) {
+                    parseStreaming(batchSize, successCount, failureCount);
+                } else {
+                    parseConcurrently(span, batchSize, successCount, failureCount);
                 }
 
-                // Ждем завершения всех задач
-                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                        .join();
-
                 successfulParses.increment(successCount.get());
                 failedParses.increment(failureCount.get());
+                event.succeeded = successCount.get();
+                event.failed = failureCount.get();
 
                 log.info("Parsing completed: {} successful, {} failed",
                         successCount.get(), failureCount.get());
@@ -123,81 +113,261 @@ public class ParserService {
             span.recordException(e);
             throw e;
         } finally {
+            stageRecorder.completeBatch(batchSize, System.nanoTime() - start);
+            event.commit();
             span.end();
         }
     }
 
-    @Transactional
-    public void saveToDatabase(DataModel data) {
-        dataRepository.save(data);
-        dbInserts.increment();
+    private void parseConcurrently(Span batchSpan, int batchSize,
+                                   AtomicInteger successCount, AtomicInteger failureCount) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batchSize);
+        // Каждая запись пишет свой слот; сущности создаёт BatchWriter при сбросе
+        DataBatch columns = new DataBatch(batchSize);
+
+        try (ParseBatch batch = parseEngine.openBatch(batchSize)) {
+            for (int i = 0; i < batchSize; i++) {
+                final int recordNumber = i;
+                long submitted = System.nanoTime();
+                CompletableFuture<Void> future = batch
+                        .submit(() -> {
+                            stageRecorder.record(PipelineStage.QUEUE_WAIT, System.nanoTime() - submitted);
+                            return recordTracer.traceRecord(batchSpan, recordNumber,
+                                    () -> parseRecord(columns, recordNumber, false));
+                        })
+                        .thenCompose(parsed -> saveToDatabase(parsed, recordNumber))
+                        .handle((ignored, e) -> {
+                            if (e == null) {
+                                successCount.incrementAndGet();
+                            } else {
+                                failureCount.incrementAndGet();
+                                logFailure(recordNumber, e);
+                            }
+                            return null;
+                        });
+                futures.add(future);
+            }
+            batch.join();
+        }
+
+        // Ждем завершения всех задач, включая запись в БД
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .join();
     }
 
-    private DataModel parseSingleRecord() {
-        Span span = tracer.spanBuilder("parseSingleRecord").startSpan();
+    /**
+     * Большой батч делится на несколько потоков с ограниченным окном,
+     * так что в памяти одновременно не больше parallelism * window записей.
+     */
+    private void parseStreaming(int batchSize, AtomicInteger successCount, AtomicInteger failureCount) {
+        ParserProperties.Streaming streaming = properties.getStreaming();
+        int parallelism = Math.max(1, Math.min(streaming.getParallelism(), batchSize));
+        List<PersistingSubscriber> subscribers = new ArrayList<>(parallelism);
+
+        for (int i = 0; i < parallelism; i++) {
+            int count = batchSize / parallelism + (i < batchSize % parallelism ? 1 : 0);
+            PersistingSubscriber subscriber = new PersistingSubscriber(recordWriter, streaming.getWindow());
+            parseAsPublisher(count).subscribe(subscriber);
+            subscribers.add(subscriber);
+        }
+
+        for (PersistingSubscriber subscriber : subscribers) {
+            subscriber.completion().join();
+            successCount.addAndGet(subscriber.succeeded());
+            failureCount.addAndGet(subscriber.failed());
+        }
+    }
+
+    /**
+     * Потоковый вариант парсинга: записи создаются по мере запроса подписчика
+     * в колоночных кусках по окну стриминга.
+     */
+    public Flow.Publisher<DataBatch.Row> parseAsPublisher(int count) {
+        return new RecordPublisher<>(count, new ChunkedSource(properties.getStreaming().getWindow()), streamExecutor);
+    }
+
+    /**
+     * Передаёт запись батча в {@link RecordWriter}; future завершается после коммита её батча
+     * или, в режиме JOURNAL, после записи в журнал.
+     */
+    public CompletableFuture<Void> saveToDatabase(DataBatch batch, int index) {
+        return recordWriter.submit(batch, index);
+    }
+
+    private void logFailure(int recordNumber, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof CancellationException) {
+            log.debug("Record {} cancelled: {}", recordNumber, cause.getMessage());
+        } else {
+            log.error("Failed to parse record {}", recordNumber, cause);
+        }
+    }
+
+    /**
+     * Парсит одну запись в слот index: без аллокаций на запись, строка payload и
+     * LocalDateTime появятся только в {@link DataBatch#toEntity(int)}.
+     *
+     * @return тот же батч, чтобы передать его дальше по цепочке без упаковки индекса
+     */
+    private DataBatch parseRecord(DataBatch batch, int index, boolean managedBlocking) {
+        Span span = recordTracer.startParseSpan();
+        ParseRecordEvent event = new ParseRecordEvent();
+        event.begin();
+        long start = System.nanoTime();
 
         try {
             // Имитация парсинга данных
-            DataModel data = new DataModel();
-            data.setData("Sample data " + System.currentTimeMillis());
-            data.setValue(Math.random() * 1000);
-
-            Random random = new Random();
-            data.setCategory("CATEGORY_" + random.nextInt(10));
-            data.setTimestamp(LocalDateTime.now());
-            data.setProcessingTime(System.nanoTime());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now = System.currentTimeMillis();
+            batch.set(index, random.nextDouble() * 1000, now, System.nanoTime(),
+                    random.nextInt(CategoryDictionary.SIZE), now);
 
-            // Имитация обработки (максимум 5 мс)
-            Thread.sleep(random.nextInt(5));
+            simulateProcessing(random, managedBlocking);
 
-            return data;
+            return batch;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            span.recordException(e);
+            recordTracer.markFailed(span, e);
             throw new RuntimeException("Parsing interrupted", e);
         } finally {
+            stageRecorder.record(PipelineStage.PARSE, System.nanoTime() - start);
+            event.managedBlocking = managedBlocking;
+            event.commit();
             span.end();
         }
     }
 
-    // Методы для различных реализаций парсинга (для бенчмаркинга)
-    public List<DataModel> parseWithForLoop(int count) {
-        List<DataModel> result = new ArrayList<>(count);
+    // Имитация обработки (по умолчанию максимум 5 мс)
+    private void simulateProcessing(ThreadLocalRandom random, boolean managedBlocking) throws InterruptedException {
+        long maxDelayMs = properties.getMaxSimulatedDelay().toMillis();
+        if (maxDelayMs > 0) {
+            long delayMs = random.nextLong(maxDelayMs);
+            if (managedBlocking) {
+                // Пул видит блокировку и на её время может запустить компенсирующий воркер
+                ForkJoinPool.managedBlock(new SleepBlocker(delayMs));
+            } else {
+                Thread.sleep(delayMs);
+            }
+        }
+    }
+
+    /**
+     * Заполняет первые count слотов переиспользуемого батча
+     */
+    public void parseInto(DataBatch batch, int count) {
         for (int i = 0; i < count; i++) {
-            result.add(parseSingleRecord());
+            parseRecord(batch, i, false);
         }
-        return result;
     }
 
-    public List<DataModel> parseWithStream(int count) {
-        return IntStream.range(0, count)
-                .mapToObj(i -> parseSingleRecord())
-                .collect(Collectors.toList());
+    // Методы для различных реализаций парсинга (для бенчмаркинга)
+    public DataBatch parseWithForLoop(int count) {
+        DataBatch batch = new DataBatch(count);
+        parseInto(batch, count);
+        return batch;
+    }
+
+    public DataBatch parseWithStream(int count) {
+        DataBatch batch = new DataBatch(count);
+        IntStream.range(0, count)
+                .forEach(i -> parseRecord(batch, i, false));
+        return batch;
     }
 
-    public List<DataModel> parseWithParallelStream(int count) {
-        return IntStream.range(0, count)
+    public DataBatch parseWithParallelStream(int count) {
+        DataBatch batch = new DataBatch(count);
+        IntStream.range(0, count)
                 .parallel()
-                .mapToObj(i -> parseSingleRecord())
-                .collect(Collectors.toList());
+                .forEach(i -> parseRecord(batch, i, false));
+        return batch;
+    }
+
+    /**
+     * Параллельный стрим на выделенном ForkJoinPool: не занимает common pool, а блокирующая
+     * часть обработки идёт через ManagedBlocker, поэтому параллелизм не упирается в число ядер.
+     */
+    public DataBatch parseWithForkJoin(int count) {
+        DataBatch batch = new DataBatch(count);
+        forkJoinPool.submit(() -> IntStream.range(0, count)
+                        .parallel()
+                        .forEach(i -> parseRecord(batch, i, true)))
+                .join();
+        return batch;
+    }
+
+    private static ForkJoinPool createForkJoinPool(ParserProperties.ForkJoin settings) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("parse-fj-" + threadNumber.incrementAndGet());
+            return thread;
+        };
+        int maxPoolSize = Math.max(settings.getParallelism(), settings.getMaxPoolSize());
+        // На потолке заблокированный воркер просто ждёт без компенсации, а не падает с RejectedExecutionException
+        return new ForkJoinPool(settings.getParallelism(), factory, null, false,
+                0, maxPoolSize, 1, pool -> true, 60, TimeUnit.SECONDS);
     }
 
     @PreDestroy
     public void cleanup() {
-        log.info("Shutting down executor service");
-        if (executorService != null) {
-            executorService.shutdown();
-            try {
-                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                    executorService.shutdownNow();
-                    if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                        log.error("Executor service did not terminate");
-                    }
-                }
-            } catch (InterruptedException e) {
-                executorService.shutdownNow();
-                Thread.currentThread().interrupt();
+        log.info("Shutting down stream executor");
+        if (streamExecutor != null) {
+            streamExecutor.close();
+        }
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Источник потоковых записей: слоты выдаются подряд из кусков размером с окно подписчика.
+     * Под блокировкой только выдача слота, парсинг (со sleep) идёт снаружи.
+     */
+    private final class ChunkedSource implements Supplier<DataBatch.Row> {
+
+        private final int chunkSize;
+        private DataBatch chunk;
+        private int next;
+
+        private ChunkedSource(int chunkSize) {
+            this.chunkSize = Math.max(1, chunkSize);
+        }
+
+        @Override
+        public DataBatch.Row get() {
+            DataBatch.Row row = claim();
+            parseRecord(row.batch(), row.index(), false);
+            return row;
+        }
+
+        private synchronized DataBatch.Row claim() {
+            if (chunk == null || next == chunk.size()) {
+                chunk = new DataBatch(chunkSize);
+                next = 0;
             }
+            return new DataBatch.Row(chunk, next++);
+        }
+    }
+
+    private static final class SleepBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final long delayMs;
+        private boolean done;
+
+        private SleepBlocker(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            Thread.sleep(delayMs);
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
         }
     }
 }
\ No newline at end of file
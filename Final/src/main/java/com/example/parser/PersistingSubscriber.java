@@ -0,0 +1,88 @@
+package com.example.parser;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Подписчик, сохраняющий записи через {@link RecordWriter}. Держит не больше window
+ * записей между парсингом и подтверждением: следующая запись запрашивается только после
+ * подтверждения записи предыдущей.
+ */
+@Slf4j
+public class PersistingSubscriber implements Flow.Subscriber<DataBatch.Row> {
+
+    private final RecordWriter recordWriter;
+    private final int window;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private volatile boolean upstreamDone;
+    private Flow.Subscription subscription;
+
+    public PersistingSubscriber(RecordWriter recordWriter, int window) {
+        this.recordWriter = recordWriter;
+        this.window = window;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(DataBatch.Row item) {
+        pending.incrementAndGet();
+        recordWriter.submit(item.batch(), item.index()).whenComplete((ignored, e) -> {
+            if (e == null) {
+                succeeded.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+                log.error("Failed to persist streamed record", e);
+            }
+            subscription.request(1);
+            if (pending.decrementAndGet() == 0 && upstreamDone) {
+                done.complete(null);
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error("Record stream failed", throwable);
+        failed.incrementAndGet();
+        upstreamDone = true;
+        if (pending.get() == 0) {
+            done.complete(null);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        if (pending.get() == 0) {
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Завершается, когда поток закончился и все полученные записи сохранены (или не сохранены)
+     */
+    public CompletableFuture<Void> completion() {
+        return done;
+    }
+
+    public int succeeded() {
+        return succeeded.get();
+    }
+
+    public int failed() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.parser;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Холодный publisher: каждая подписка парсит count записей и отдаёт их подписчику
+ * не больше, чем он запросил. Записи создаются по мере спроса, поэтому в памяти
+ * одновременно находится не больше окна подписчика.
+ */
+public class RecordPublisher<T> implements Flow.Publisher<T> {
+
+    private final long count;
+    private final Supplier<? extends T> source;
+    private final Executor executor;
+
+    public RecordPublisher(long count, Supplier<? extends T> source, Executor executor) {
+        this.count = count;
+        this.source = source;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        RecordSubscription subscription = new RecordSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        // Для count == 0 сразу завершаем поток
+        subscription.schedule();
+    }
+
+    private class RecordSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean terminated;
+        private long emitted;
+
+        RecordSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (terminated) {
+                return;
+            }
+            if (n <= 0) {
+                terminated = true;
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> {
+                long sum = current + added;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            terminated = true;
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Выполняется одним потоком за раз, сигналы подписчику сериализованы
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!terminated && emitted < count && demand.get() > 0) {
+                    T next;
+                    try {
+                        next = source.get();
+                    } catch (Throwable e) {
+                        terminated = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    emitted++;
+                    demand.decrementAndGet();
+                    subscriber.onNext(next);
+                }
+
+                if (!terminated && emitted == count) {
+                    terminated = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
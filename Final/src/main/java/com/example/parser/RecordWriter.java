@@ -0,0 +1,23 @@
+package com.example.parser;
+
+import com.example.model.DataModel;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Куда парсер отдаёт готовые записи. Момент завершения future зависит от режима
+ * parser.persistence.mode: DIRECT - после коммита в БД ({@link BatchWriter}),
+ * JOURNAL - после записи в локальный журнал ({@link com.example.parser.journal.JournalRecordWriter}).
+ */
+public interface RecordWriter {
+
+    CompletableFuture<Void> submit(DataModel data);
+
+    /**
+     * Запись колоночного батча. По умолчанию сущность создаётся сразу; {@link BatchWriter}
+     * откладывает это до сброса батча в БД.
+     */
+    default CompletableFuture<Void> submit(DataBatch batch, int index) {
+        return submit(batch.toEntity(index));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.parser;
+
+public enum WriteMode {
+    /**
+     * Запись в БД батчами, подтверждение после коммита
+     */
+    DIRECT,
+
+    /**
+     * Write-behind: подтверждение после записи в memory-mapped журнал, в БД пишет фоновый drainer
+     */
+    JOURNAL
+}
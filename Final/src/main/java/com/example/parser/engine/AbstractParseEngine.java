@@ -0,0 +1,75 @@
+package com.example.parser.engine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общие метрики движков: записи в работе, ожидание до старта и загрузка исполнителей.
+ */
+abstract class AbstractParseEngine implements ParseEngine {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Timer queueWait;
+
+    protected AbstractParseEngine(MeterRegistry meterRegistry) {
+        String mode = mode().name().toLowerCase();
+
+        Gauge.builder("parser.engine.inflight", inFlight, AtomicInteger::get)
+                .description("Records submitted and not yet completed")
+                .tag("mode", mode)
+                .register(meterRegistry);
+
+        Gauge.builder("parser.engine.utilization", this, AbstractParseEngine::utilization)
+                .description("Share of engine capacity busy running records")
+                .tag("mode", mode)
+                .register(meterRegistry);
+
+        queueWait = Timer.builder("parser.engine.queue.wait")
+                .description("Time between record submission and start of processing")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Сколько записей движок может исполнять одновременно
+     */
+    protected abstract int capacity();
+
+    private double utilization() {
+        return (double) running.get() / capacity();
+    }
+
+    /**
+     * Оборачивает задачу в Runnable, который снимает метрики и завершает result.
+     * Вызывать после того, как исполнитель получил право на запуск (поток или permit).
+     */
+    protected <T> Runnable instrument(Callable<T> task, CompletableFuture<T> result) {
+        long submittedAt = System.nanoTime();
+        inFlight.incrementAndGet();
+        result.whenComplete((value, e) -> inFlight.decrementAndGet());
+
+        return () -> {
+            queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            if (result.isDone()) {
+                // Отменена до старта
+                return;
+            }
+            running.incrementAndGet();
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+    }
+}
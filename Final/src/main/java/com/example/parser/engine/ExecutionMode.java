@@ -0,0 +1,7 @@
+package com.example.parser.engine;
+
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL,
+    STRUCTURED
+}
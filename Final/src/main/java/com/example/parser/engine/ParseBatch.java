@@ -0,0 +1,20 @@
+package com.example.parser.engine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Задачи одного вызова parseData. Закрытие батча освобождает ресурсы, выделенные под него движком.
+ */
+public interface ParseBatch extends AutoCloseable {
+
+    <T> CompletableFuture<T> submit(Callable<T> task);
+
+    /**
+     * Ожидает завершения всех отправленных задач с учётом дедлайна и политики отмены движка.
+     */
+    void join();
+
+    @Override
+    void close();
+}
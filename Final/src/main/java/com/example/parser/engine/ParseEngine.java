@@ -0,0 +1,26 @@
+package com.example.parser.engine;
+
+import com.example.config.ParserProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Движок, на котором parseData исполняет обработку записей.
+ */
+public interface ParseEngine extends AutoCloseable {
+
+    ExecutionMode mode();
+
+    ParseBatch openBatch(int batchSize);
+
+    @Override
+    void close();
+
+    static ParseEngine create(ParserProperties.Engine settings, MeterRegistry meterRegistry) {
+        return switch (settings.getMode()) {
+            case PLATFORM -> new PlatformPoolEngine(settings.getThreads(), meterRegistry);
+            case VIRTUAL -> new VirtualThreadEngine(settings.getMaxConcurrency(), meterRegistry);
+            case STRUCTURED -> new StructuredEngine(settings.getMaxConcurrency(),
+                    settings.getBatchDeadline(), meterRegistry);
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.parser.engine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фиксированный пул платформенных потоков: не больше threads записей в работе.
+ */
+@Slf4j
+public class PlatformPoolEngine extends AbstractParseEngine {
+
+    private final int threads;
+    private final ExecutorService executorService;
+
+    public PlatformPoolEngine(int threads, MeterRegistry meterRegistry) {
+        super(meterRegistry);
+        this.threads = threads;
+        this.executorService = Executors.newFixedThreadPool(threads);
+    }
+
+    @Override
+    public ExecutionMode mode() {
+        return ExecutionMode.PLATFORM;
+    }
+
+    @Override
+    protected int capacity() {
+        return threads;
+    }
+
+    @Override
+    public ParseBatch openBatch(int batchSize) {
+        return new ParseBatch() {
+            private final List<CompletableFuture<?>> futures = new ArrayList<>(batchSize);
+
+            @Override
+            public <T> CompletableFuture<T> submit(Callable<T> task) {
+                CompletableFuture<T> result = new CompletableFuture<>();
+                executorService.execute(instrument(task, result));
+                futures.add(result);
+                return result;
+            }
+
+            @Override
+            public void join() {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .exceptionally(e -> null)
+                        .join();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        log.info("Shutting down executor service");
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+                    log.error("Executor service did not terminate");
+                }
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
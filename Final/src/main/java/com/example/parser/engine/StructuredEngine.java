@@ -0,0 +1,155 @@
+package com.example.parser.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Структурированный батч: у каждого вызова parseData свой исполнитель виртуальных потоков,
+ * который закрывается вместе с батчем. Первая ошибка или истечение дедлайна отменяет
+ * оставшиеся записи. StructuredTaskScope в JDK 21 - preview API, поэтому та же семантика
+ * (ShutdownOnFailure + joinUntil) реализована поверх ExecutorService.
+ */
+@Slf4j
+public class StructuredEngine extends AbstractParseEngine {
+
+    private final int maxConcurrency;
+    private final Duration batchDeadline;
+    private final Semaphore permits;
+    private final Counter cancelledBatches;
+
+    public StructuredEngine(int maxConcurrency, Duration batchDeadline, MeterRegistry meterRegistry) {
+        super(meterRegistry);
+        this.maxConcurrency = maxConcurrency;
+        this.batchDeadline = batchDeadline;
+        this.permits = new Semaphore(maxConcurrency);
+        this.cancelledBatches = Counter.builder("parser.engine.cancelled.batches")
+                .description("Batches cancelled because of a failure or deadline")
+                .tag("mode", mode().name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ExecutionMode mode() {
+        return ExecutionMode.STRUCTURED;
+    }
+
+    @Override
+    protected int capacity() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public ParseBatch openBatch(int batchSize) {
+        return new ScopedBatch(batchSize, System.nanoTime() + batchDeadline.toNanos());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private class ScopedBatch implements ParseBatch {
+
+        private final ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        private final List<CompletableFuture<?>> results;
+        private final List<Future<?>> tasks;
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+
+        ScopedBatch(int batchSize, long deadlineNanos) {
+            this.results = new ArrayList<>(batchSize);
+            this.tasks = new ArrayList<>(batchSize);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public synchronized <T> CompletableFuture<T> submit(Callable<T> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            if (cancelled) {
+                result.completeExceptionally(new CancellationException("Batch cancelled"));
+                return result;
+            }
+
+            Runnable work = instrument(task, result);
+            result.whenComplete((value, e) -> {
+                if (e != null && !(e instanceof CancellationException)) {
+                    cancel(new CancellationException("Sibling record failed: " + e));
+                }
+            });
+            results.add(result);
+            tasks.add(scope.submit(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    result.completeExceptionally(new CancellationException("Interrupted before start"));
+                    return;
+                }
+                try {
+                    work.run();
+                } finally {
+                    permits.release();
+                }
+            }));
+            return result;
+        }
+
+        @Override
+        public void join() {
+            CompletableFuture<Void> all;
+            synchronized (this) {
+                all = CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
+            }
+            try {
+                all.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Batch deadline of {} exceeded, cancelling remaining records", batchDeadline);
+                cancel(new CancellationException("Batch deadline exceeded"));
+            } catch (ExecutionException | CancellationException e) {
+                // Ошибки записей обрабатывает вызывающий через их future
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(new CancellationException("Interrupted while joining batch"));
+            }
+        }
+
+        private void cancel(CancellationException reason) {
+            List<Future<?>> toInterrupt;
+            List<CompletableFuture<?>> toFail;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                toInterrupt = new ArrayList<>(tasks);
+                toFail = new ArrayList<>(results);
+            }
+            cancelledBatches.increment();
+            for (CompletableFuture<?> result : toFail) {
+                result.completeExceptionally(reason);
+            }
+            for (Future<?> task : toInterrupt) {
+                task.cancel(true);
+            }
+        }
+
+        @Override
+        public void close() {
+            // Ни одна задача батча не переживает его закрытие: ждём завершения (или отмены) всех потоков
+            scope.close();
+        }
+    }
+}
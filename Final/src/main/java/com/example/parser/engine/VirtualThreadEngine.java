@@ -0,0 +1,82 @@
+package com.example.parser.engine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Виртуальный поток на запись. Число одновременно работающих записей ограничено семафором,
+ * чтобы тысячи потоков не выстраивались в очередь за соединениями пула.
+ */
+public class VirtualThreadEngine extends AbstractParseEngine {
+
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    public VirtualThreadEngine(int maxConcurrency, MeterRegistry meterRegistry) {
+        super(meterRegistry);
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public ExecutionMode mode() {
+        return ExecutionMode.VIRTUAL;
+    }
+
+    @Override
+    protected int capacity() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public ParseBatch openBatch(int batchSize) {
+        return new ParseBatch() {
+            private final List<CompletableFuture<?>> futures = new ArrayList<>(batchSize);
+
+            @Override
+            public <T> CompletableFuture<T> submit(Callable<T> task) {
+                CompletableFuture<T> result = new CompletableFuture<>();
+                Runnable work = instrument(task, result);
+                executorService.execute(() -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    try {
+                        work.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+                futures.add(result);
+                return result;
+            }
+
+            @Override
+            public void join() {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .exceptionally(e -> null)
+                        .join();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        executorService.close();
+    }
+}
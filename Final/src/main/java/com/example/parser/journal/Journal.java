@@ -0,0 +1,287 @@
+package com.example.parser.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only журнал из memory-mapped сегментов фиксированного размера.
+ * Запись: [длина][CRC32C][payload]; после последней записи сегмента стоит маркер ROLL,
+ * нулевая длина - конец записанных данных. Смещения сквозные: сегмент с базой B
+ * покрывает [B, B + segmentSize).
+ *
+ * Один писатель под монитором журнала и один читатель (drainer). Прочитанное
+ * подтверждается {@link #commit}: смещение пишется в файл checkpoint, полностью
+ * вычитанные сегменты удаляются. После рестарта чтение продолжается с checkpoint,
+ * так что запись, попавшая в БД, но не в checkpoint, будет записана повторно (at-least-once).
+ */
+@Slf4j
+class Journal implements Closeable {
+
+    static final int HEADER = 8;
+    private static final int ROLL = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private volatile Segment head;
+    private volatile long writeOffset;
+    private volatile long checkpoint;
+
+    private record Segment(long base, Path path, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    private Journal(Path directory, int segmentSize, int maxSegments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(2, maxSegments);
+    }
+
+    /**
+     * Открывает журнал, восстанавливает позицию записи по CRC последнего сегмента
+     * и позицию чтения по checkpoint.
+     */
+    static Journal open(Path directory, int segmentSize, int maxSegments) throws IOException {
+        Journal journal = new Journal(directory, segmentSize, maxSegments);
+        journal.recover();
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        Path checkpointFile = directory.resolve(CHECKPOINT);
+        checkpoint = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim())
+                : 0;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(Journal::isSegment).toList()) {
+                long base = baseOf(path);
+                if (base + segmentSize <= checkpoint) {
+                    // Вычитан целиком, но не успел удалиться до остановки
+                    Files.delete(path);
+                } else {
+                    segments.put(base, map(base, path));
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            head = createSegment(checkpoint - checkpoint % segmentSize);
+            writeOffset = Math.max(checkpoint, head.base());
+        } else {
+            head = segments.lastEntry().getValue();
+            writeOffset = head.base() + recoverEnd(head);
+        }
+        checkpoint = Math.max(checkpoint, segments.firstKey());
+
+        if (writeOffset - head.base() + 4 > segmentSize || head.buffer().getInt((int) (writeOffset - head.base())) == ROLL) {
+            // Упали сразу после маркера ROLL, до создания следующего сегмента
+            roll();
+        }
+    }
+
+    /**
+     * Позиция сразу за последней целой записью. Хвост, не прошедший проверку CRC
+     * (запись оборвана падением), обнуляется.
+     */
+    private int recoverEnd(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer();
+        int position = 0;
+        while (position + HEADER <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length == ROLL) {
+                return position;
+            }
+            if (length == 0) {
+                // Payload оборванной записи мог лечь без заголовка - не оставляем мусор за концом
+                zeroTail(buffer, position);
+                return position;
+            }
+            if (length < 0 || position + HEADER + length > segmentSize
+                    || crc(buffer, position + HEADER, length) != buffer.getInt(position + 4)) {
+                log.warn("Journal segment {} has a torn record at {}, truncating", segment.path(), position);
+                zeroTail(buffer, position);
+                return position;
+            }
+            position += HEADER + length;
+        }
+        return position;
+    }
+
+    /**
+     * Дописывает запись. Если все maxSegments сегментов заняты, ждёт, пока drainer их освободит.
+     */
+    synchronized void append(byte[] payload) throws IOException, InterruptedException {
+        int needed = HEADER + payload.length;
+        if (needed + 4 > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a journal segment");
+        }
+
+        int position = (int) (writeOffset - head.base());
+        if (position + needed + 4 > segmentSize) {
+            head.buffer().putInt(position, ROLL);
+            while (segments.size() >= maxSegments) {
+                wait();
+            }
+            roll();
+            position = 0;
+        }
+
+        MappedByteBuffer buffer = head.buffer();
+        buffer.put(position + HEADER, payload);
+        buffer.putInt(position + 4, crc(buffer, position + HEADER, payload.length));
+        // Длина пишется последней: ненулевой заголовок означает, что payload уже на месте
+        buffer.putInt(position, payload.length);
+        writeOffset = head.base() + position + needed;
+    }
+
+    /**
+     * Читает до maxRecords записей начиная с offset, не дальше текущей позиции записи.
+     *
+     * @return смещение сразу за последней прочитанной записью
+     */
+    long read(long offset, int maxRecords, List<byte[]> out) {
+        long limit = writeOffset;
+        while (out.size() < maxRecords && offset < limit) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                offset = segments.firstKey();
+                continue;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.base());
+            int length = position + 4 <= segmentSize ? segment.buffer().getInt(position) : ROLL;
+            if (length == ROLL) {
+                offset = segment.base() + segmentSize;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer().get(position + HEADER, payload);
+            out.add(payload);
+            offset += HEADER + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Фиксирует, что всё до offset записано в БД
+     */
+    synchronized void commit(long offset) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temp, Long.toString(offset), StandardCharsets.US_ASCII);
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = offset;
+
+        boolean released = false;
+        while (segments.size() > 1 && segments.firstKey() + segmentSize <= offset) {
+            Segment drained = segments.pollFirstEntry().getValue();
+            drained.channel().close();
+            try {
+                Files.delete(drained.path());
+            } catch (IOException e) {
+                // На Windows отображённый файл не удалить; подчистится при следующем старте
+                log.warn("Could not delete drained journal segment {}", drained.path(), e);
+            }
+            released = true;
+        }
+        if (released) {
+            notifyAll();
+        }
+    }
+
+    long checkpoint() {
+        return checkpoint;
+    }
+
+    long writeOffset() {
+        return writeOffset;
+    }
+
+    long backlogBytes() {
+        return writeOffset - checkpoint;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    void force() {
+        Segment current = head;
+        if (current != null) {
+            current.buffer().force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.buffer().force();
+            segment.channel().close();
+        }
+        segments.clear();
+        notifyAll();
+    }
+
+    private void roll() throws IOException {
+        // фоновый force() видит только текущую голову — уходящий сегмент сбрасываем сами
+        head.buffer().force();
+        head = createSegment(head.base() + segmentSize);
+        writeOffset = head.base();
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Segment segment = map(base, directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX)));
+        segments.put(base, segment);
+        return segment;
+    }
+
+    private Segment map(long base, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(base, path, channel, buffer);
+    }
+
+    private void zeroTail(MappedByteBuffer buffer, int from) {
+        byte[] zeros = new byte[64 * 1024];
+        for (int position = from; position < segmentSize; position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, segmentSize - position));
+        }
+    }
+
+    private static int crc(MappedByteBuffer buffer, int position, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long baseOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.parser.journal;
+
+import com.example.model.DataModel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Бинарный формат записи журнала: value, timestamp (секунды UTC + наносекунды),
+ * processingTime с флагом null, затем data и category как UTF-8 с длиной.
+ * id и version не пишутся - их назначает БД при сливе.
+ */
+final class JournalCodec {
+
+    private static final int FIXED = Double.BYTES + Long.BYTES + Integer.BYTES + 1 + Long.BYTES + 2 * Integer.BYTES;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(DataModel data) {
+        byte[] text = data.getData().getBytes(StandardCharsets.UTF_8);
+        byte[] category = data.getCategory().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED + text.length + category.length);
+
+        buffer.putDouble(data.getValue());
+        buffer.putLong(data.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(data.getTimestamp().getNano());
+        Long processingTime = data.getProcessingTime();
+        buffer.put((byte) (processingTime != null ? 1 : 0));
+        buffer.putLong(processingTime != null ? processingTime : 0);
+        buffer.putInt(text.length).put(text);
+        buffer.putInt(category.length).put(category);
+        return buffer.array();
+    }
+
+    static DataModel decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        DataModel data = new DataModel();
+
+        data.setValue(buffer.getDouble());
+        long seconds = buffer.getLong();
+        data.setTimestamp(LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC));
+        boolean hasProcessingTime = buffer.get() != 0;
+        long processingTime = buffer.getLong();
+        data.setProcessingTime(hasProcessingTime ? processingTime : null);
+        data.setData(readString(buffer));
+        data.setCategory(readString(buffer));
+        return data;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
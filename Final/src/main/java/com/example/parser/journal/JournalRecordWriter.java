@@ -0,0 +1,230 @@
+package com.example.parser.journal;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.parser.DataFlushedEvent;
+import com.example.parser.RecordWriter;
+import com.example.repository.DataBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind запись через журнал: submit завершается, как только запись легла в
+ * memory-mapped сегмент, а отдельный поток-drainer переносит журнал в БД большими
+ * батчами и продвигает checkpoint после коммита.
+ *
+ * Гарантия доставки at-least-once: при падении между коммитом батча и записью checkpoint
+ * батч после рестарта будет вставлен ещё раз. Данные переживают падение процесса сразу,
+ * падение ОС - с потерей не более forceInterval.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "parser.persistence", name = "mode", havingValue = "JOURNAL")
+@Slf4j
+public class JournalRecordWriter implements RecordWriter {
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final DataBatchRepository batchRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParserProperties.Journal settings;
+
+    private Journal journal;
+    private Thread drainer;
+    private volatile boolean running;
+    private long readOffset;
+
+    private Counter appends;
+    private Counter drained;
+    private Counter drainFailures;
+    private Timer drainTimer;
+
+    public JournalRecordWriter(DataBatchRepository batchRepository,
+                               MeterRegistry meterRegistry,
+                               ApplicationEventPublisher eventPublisher,
+                               ParserProperties properties) {
+        this.batchRepository = batchRepository;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.settings = properties.getPersistence().getJournal();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = Journal.open(Path.of(settings.getDirectory()),
+                (int) settings.getSegmentSize().toBytes(), settings.getMaxSegments());
+        readOffset = journal.checkpoint();
+        if (journal.backlogBytes() > 0) {
+            log.info("Journal {} has {} bytes to replay from offset {}",
+                    settings.getDirectory(), journal.backlogBytes(), readOffset);
+        }
+
+        appends = Counter.builder("journal.appends")
+                .description("Records appended to the write-behind journal")
+                .register(meterRegistry);
+
+        drained = Counter.builder("journal.drained")
+                .description("Journal records written to the database")
+                .register(meterRegistry);
+
+        drainFailures = Counter.builder("journal.drain.failures")
+                .description("Failed attempts to drain a journal batch")
+                .register(meterRegistry);
+
+        drainTimer = Timer.builder("journal.drain.duration")
+                .description("Time taken to write one drained batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        Gauge.builder("journal.backlog.bytes", journal, Journal::backlogBytes)
+                .description("Journal bytes not yet confirmed in the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Gauge.builder("journal.segments", journal, Journal::segmentCount)
+                .description("Journal segments on disk")
+                .register(meterRegistry);
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "journal-drainer");
+        drainer.start();
+    }
+
+    /**
+     * Дописывает запись в журнал. Блокируется, только если журнал занял maxSegments сегментов.
+     *
+     * @return future, завершённый после записи в журнал (не в БД)
+     */
+    @Override
+    public CompletableFuture<Void> submit(DataModel data) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Journal writer is stopped"));
+        }
+
+        try {
+            journal.append(JournalCodec.encode(data));
+            appends.increment();
+            return CompletableFuture.completedFuture(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void drainLoop() {
+        long backoff = settings.getDrainInterval().toMillis();
+        long forceIntervalNanos = settings.getForceInterval().toNanos();
+        long lastForce = System.nanoTime();
+
+        while (running) {
+            try {
+                if (System.nanoTime() - lastForce >= forceIntervalNanos) {
+                    journal.force();
+                    lastForce = System.nanoTime();
+                }
+
+                if (drainOnce() == 0) {
+                    TimeUnit.MILLISECONDS.sleep(settings.getDrainInterval().toMillis());
+                }
+                backoff = settings.getDrainInterval().toMillis();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // БД недоступна - журнал копится на диске, повторяем с растущей паузой
+                drainFailures.increment();
+                log.error("Failed to drain journal at offset {}, retrying in {}ms", readOffset, backoff, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Переносит в БД один батч из журнала
+     *
+     * @return количество записанных записей
+     */
+    int drainOnce() throws IOException {
+        List<byte[]> payloads = new ArrayList<>(settings.getDrainBatchSize());
+        long next = journal.read(readOffset, settings.getDrainBatchSize(), payloads);
+        if (payloads.isEmpty()) {
+            if (next != readOffset) {
+                // Прочитали только маркер перехода на следующий сегмент
+                journal.commit(next);
+                readOffset = next;
+            }
+            return 0;
+        }
+
+        List<DataModel> records = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            records.add(JournalCodec.decode(payload));
+        }
+
+        drainTimer.record(() -> batchRepository.saveBatch(records));
+        journal.commit(next);
+        readOffset = next;
+        drained.increment(records.size());
+
+        try {
+            eventPublisher.publishEvent(new DataFlushedEvent(records));
+        } catch (Exception e) {
+            log.warn("Flush listener failed for batch of {} records", records.size(), e);
+        }
+        return records.size();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        if (drainer != null) {
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(60));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Дописываем хвост, пока укладываемся в таймаут; остальное воспроизведётся при старте
+        long deadline = System.nanoTime() + settings.getShutdownDrainTimeout().toNanos();
+        try {
+            long before;
+            do {
+                before = readOffset;
+                drainOnce();
+            } while (readOffset != before && journal.backlogBytes() > 0 && System.nanoTime() < deadline);
+        } catch (Exception e) {
+            log.warn("Could not drain journal on shutdown, {} bytes will be replayed on start",
+                    journal.backlogBytes(), e);
+        }
+
+        log.info("Stopping journal writer, {} bytes left for replay", journal.backlogBytes());
+        journal.close();
+    }
+}
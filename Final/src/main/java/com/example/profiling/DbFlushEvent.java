@@ -0,0 +1,37 @@
+package com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Запись одного батча в БД с разбивкой на стадии
+ */
+@Name("com.example.DbFlush")
+@Label("DB Flush")
+@Category({"Application", "Parser"})
+@Description("One batch written to parsed_data inside its own transaction")
+public class DbFlushEvent extends Event {
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Path")
+    @Description("jpa or copy")
+    public String path;
+
+    @Label("Connection Acquire")
+    @Timespan
+    public long acquireNanos;
+
+    @Label("Insert")
+    @Timespan
+    public long insertNanos;
+
+    @Label("Commit")
+    @Timespan
+    public long commitNanos;
+}
@@ -0,0 +1,44 @@
+package com.example.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * /actuator/jfr - состояние записи и сводка последней;
+ * POST /actuator/jfr/start {"profile": "profile", "duration": "30s"}, POST /actuator/jfr/stop - сводка.
+ */
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private final JfrRecordingService recordingService;
+
+    @ReadOperation
+    public Object status() {
+        return recordingService.status();
+    }
+
+    @WriteOperation
+    public Object control(@Selector String action, @Nullable String profile, @Nullable Duration duration)
+            throws IOException {
+        try {
+            return switch (action) {
+                case "start" -> recordingService.start(profile, duration);
+                case "stop" -> recordingService.stop();
+                default -> throw new IllegalArgumentException("Unknown action " + action + ", use start or stop");
+            };
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.profiling;
+
+import com.example.config.ProfilingProperties;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Одна JFR-запись за раз: старт с профилем default или profile и ограниченной длительностью,
+ * по остановке (или истечении длительности) файл разбирается в {@link JfrSummary}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class JfrRecordingService {
+
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final ProfilingProperties properties;
+
+    private Recording recording;
+    private String profile;
+    private Path destination;
+    private JfrSummary lastSummary;
+
+    public synchronized Map<String, Object> start(String requestedProfile, Duration requestedDuration) throws IOException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Recording " + recording.getName() + " is already running");
+        }
+        closeRecording();
+
+        String configurationName = requestedProfile != null ? requestedProfile : "profile";
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(configurationName);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Unknown JFR profile " + configurationName + ", use default or profile");
+        } catch (ParseException e) {
+            throw new IOException("Cannot read JFR profile " + configurationName, e);
+        }
+
+        Duration duration = requestedDuration != null ? requestedDuration : properties.getDefaultDuration();
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + properties.getMaxDuration());
+        }
+
+        Path directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+
+        Recording started = new Recording(configuration);
+        started.setName("parser-" + FILE_TIME.format(Instant.now()));
+        started.enable(ParseBatchEvent.class);
+        started.enable(ParseRecordEvent.class);
+        started.enable(DbFlushEvent.class);
+        started.setDuration(duration);
+        started.setToDisk(true);
+        destination = directory.resolve(started.getName() + ".jfr");
+        started.setDestination(destination);
+        started.start();
+
+        recording = started;
+        profile = configurationName;
+        log.info("Started JFR recording {} with profile {} for {}", started.getName(), configurationName, duration);
+        return status();
+    }
+
+    /**
+     * Останавливает запись, если она ещё идёт, и разбирает получившийся файл
+     */
+    public synchronized JfrSummary stop() throws IOException {
+        if (recording == null) {
+            if (lastSummary != null) {
+                return lastSummary;
+            }
+            throw new IllegalStateException("No recording has been started");
+        }
+
+        if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED) {
+            recording.stop();
+        }
+        log.info("Stopped JFR recording {}, summarizing {}", recording.getName(), destination);
+        lastSummary = JfrSummary.read(destination, properties.getTop());
+        closeRecording();
+        return lastSummary;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("state", recording.getState());
+            status.put("profile", profile);
+            status.put("startTime", recording.getStartTime());
+            status.put("duration", recording.getDuration());
+            status.put("file", destination.toString());
+        } else {
+            status.put("state", "NONE");
+        }
+        status.put("lastSummary", lastSummary);
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeRecording();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
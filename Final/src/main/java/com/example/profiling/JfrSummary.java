@@ -0,0 +1,151 @@
+package com.example.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сводка по .jfr файлу: горячие методы (jdk.ExecutionSample), места аллокаций
+ * (jdk.ObjectAllocationSample, в байтах), конкуренция за мониторы и park, события парсера.
+ */
+public record JfrSummary(Instant start,
+                         Instant end,
+                         long events,
+                         List<Hotspot> hotMethods,
+                         List<Hotspot> allocationSites,
+                         List<Contention> lockContention,
+                         Map<String, EventStats> parserEvents) {
+
+    /**
+     * weight - число сэмплов для методов, байты для аллокаций
+     */
+    public record Hotspot(String frame, long weight, double percent) {
+    }
+
+    public record Contention(String event, String lockClass, long count, double totalMillis, double maxMillis) {
+    }
+
+    public record EventStats(long count, double totalMillis, double maxMillis) {
+
+        public double avgMillis() {
+            return count == 0 ? 0 : totalMillis / count;
+        }
+    }
+
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final String THREAD_PARK = "jdk.ThreadPark";
+    private static final List<String> PARSER_EVENTS =
+            List.of("com.example.ParseBatch", "com.example.ParseRecord", "com.example.DbFlush");
+
+    public static JfrSummary read(Path file, int top) throws IOException {
+        Map<String, Long> samples = new HashMap<>();
+        Map<String, Long> allocations = new HashMap<>();
+        Map<String, long[]> contention = new HashMap<>();
+        Map<String, long[]> parser = new LinkedHashMap<>();
+        PARSER_EVENTS.forEach(name -> parser.put(name, new long[3]));
+
+        Instant start = null;
+        Instant end = null;
+        long events = 0;
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                events++;
+                if (start == null || event.getStartTime().isBefore(start)) {
+                    start = event.getStartTime();
+                }
+                if (end == null || event.getEndTime().isAfter(end)) {
+                    end = event.getEndTime();
+                }
+
+                String name = event.getEventType().getName();
+                switch (name) {
+                    case EXECUTION_SAMPLE -> samples.merge(topFrame(event), 1L, Long::sum);
+                    case ALLOCATION_SAMPLE -> allocations.merge(topFrame(event), event.getLong("weight"), Long::sum);
+                    case MONITOR_ENTER -> accumulate(contention,
+                            MONITOR_ENTER + "|" + className(event.getClass("monitorClass")), event.getDuration());
+                    case THREAD_PARK -> accumulate(contention,
+                            THREAD_PARK + "|" + className(event.getClass("parkedClass")), event.getDuration());
+                    default -> {
+                        long[] stats = parser.get(name);
+                        if (stats != null) {
+                            accumulate(stats, event.getDuration());
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, EventStats> parserEvents = new LinkedHashMap<>();
+        parser.forEach((name, stats) -> parserEvents.put(name, new EventStats(stats[0], millis(stats[1]), millis(stats[2]))));
+
+        return new JfrSummary(start, end, events, hotspots(samples, top), hotspots(allocations, top),
+                contention(contention, top), parserEvents);
+    }
+
+    private static List<Hotspot> hotspots(Map<String, Long> weights, int top) {
+        long total = weights.values().stream().mapToLong(Long::longValue).sum();
+        return weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .map(entry -> new Hotspot(entry.getKey(), entry.getValue(), 100.0 * entry.getValue() / total))
+                .toList();
+    }
+
+    private static List<Contention> contention(Map<String, long[]> contention, int top) {
+        return contention.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed())
+                .limit(top)
+                .map(entry -> {
+                    String[] key = entry.getKey().split("\\|", 2);
+                    long[] stats = entry.getValue();
+                    return new Contention(key[0], key[1], stats[0], millis(stats[1]), millis(stats[2]));
+                })
+                .toList();
+    }
+
+    private static void accumulate(Map<String, long[]> stats, String key, Duration duration) {
+        accumulate(stats.computeIfAbsent(key, k -> new long[3]), duration);
+    }
+
+    // [count, total ns, max ns]
+    private static void accumulate(long[] stats, Duration duration) {
+        long nanos = duration.toNanos();
+        stats[0]++;
+        stats[1] += nanos;
+        stats[2] = Math.max(stats[2], nanos);
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack>";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        RecordedMethod method = frame.getMethod();
+        return method.getType().getName() + "." + method.getName();
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass != null ? recordedClass.getName() : "<unknown>";
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
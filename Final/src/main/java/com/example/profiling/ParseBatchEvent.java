@@ -0,0 +1,31 @@
+package com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Один вызов parseData; длительность события - время всего батча
+ */
+@Name("com.example.ParseBatch")
+@Label("Parse Batch")
+@Category({"Application", "Parser"})
+@Description("One parseData call from submission to the last database confirmation")
+@StackTrace(false)
+public class ParseBatchEvent extends Event {
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Succeeded")
+    public int succeeded;
+
+    @Label("Failed")
+    public int failed;
+
+    @Label("Streaming")
+    public boolean streaming;
+}
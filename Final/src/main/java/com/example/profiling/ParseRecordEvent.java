@@ -0,0 +1,22 @@
+package com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Разбор одной записи, без записи в БД
+ */
+@Name("com.example.ParseRecord")
+@Label("Parse Record")
+@Category({"Application", "Parser"})
+@Description("Parsing of a single record")
+@StackTrace(false)
+public class ParseRecordEvent extends Event {
+
+    @Label("Managed Blocking")
+    public boolean managedBlocking;
+}
@@ -0,0 +1,74 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.parser.DataFlushedEvent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * Read-through кэш перед {@link DataRepository#findAverageByCategory}.
+ * Данные меняются только через парсер, поэтому по {@link DataFlushedEvent} сбрасываются
+ * лишь категории из закоммиченного батча. Загрузка, начавшаяся до коммита, не переживёт
+ * сброс: invalidate в Caffeine ждёт окончания загрузки того же ключа.
+ *
+ * Списки строк категории не кэшируются: их размер не ограничен, а каждый flush
+ * сбрасывал бы их раньше повторного чтения.
+ */
+@Component
+public class CategoryQueryCache {
+
+    private final LoadingCache<String, Optional<Double>> averages;
+    private final Counter invalidations;
+
+    public CategoryQueryCache(DataRepository dataRepository,
+                              MeterRegistry meterRegistry,
+                              ParserProperties properties) {
+        ParserProperties.QueryCache settings = properties.getQueryCache();
+
+        // Caffeine не хранит null: категория без записей кэшируется как пустой Optional
+        this.averages = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build(category -> Optional.ofNullable(dataRepository.findAverageByCategory(category)));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, averages, "category.average");
+
+        this.invalidations = Counter.builder("category.cache.invalidations")
+                .description("Category cache entries invalidated after parser flushes")
+                .register(meterRegistry);
+    }
+
+    public OptionalDouble average(String category) {
+        return averages.get(category)
+                .map(OptionalDouble::of)
+                .orElse(OptionalDouble.empty());
+    }
+
+    @EventListener
+    public void onFlushed(DataFlushedEvent event) {
+        Set<String> categories = new HashSet<>();
+        for (DataModel data : event.records()) {
+            categories.add(data.getCategory());
+        }
+        averages.invalidateAll(categories);
+        invalidations.increment(categories.size());
+    }
+
+    // Удалённые партиции затрагивают все категории
+    @EventListener
+    public void onPartitionsDropped(PartitionsDroppedEvent event) {
+        averages.invalidateAll();
+    }
+}
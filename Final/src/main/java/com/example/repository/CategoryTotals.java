@@ -0,0 +1,17 @@
+package com.example.repository;
+
+/**
+ * Итоги по категории из одного GROUP BY
+ */
+public interface CategoryTotals {
+
+    String getCategory();
+
+    long getCount();
+
+    double getSum();
+
+    double getMin();
+
+    double getMax();
+}
@@ -0,0 +1,156 @@
+package com.example.repository;
+
+import com.example.model.DataModel;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk-загрузка через COPY ... FROM STDIN в CSV-формате. Строки пишутся в поток
+ * протокола COPY по мере сериализации, весь батч в памяти текстом не собирается.
+ */
+@Repository
+@Slf4j
+public class CopyDataBatchRepository implements DataBatchRepository {
+
+    /**
+     * Совпадает с allocationSize в {@link DataModel}: блоки id те же, что берёт Hibernate
+     */
+    static final int ID_BLOCK = 50;
+
+    private static final String COPY_SQL =
+            "COPY parsed_data (id, data, value, category, timestamp, processing_time, version) "
+                    + "FROM STDIN (FORMAT csv)";
+
+    private static final String NEXT_BLOCKS_SQL =
+            "SELECT nextval('parsed_data_seq') FROM generate_series(1, ?)";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean supported;
+
+    public CopyDataBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * COPY доступен только через драйвер PostgreSQL; на H2 и прочих БД пишем через JPA
+     */
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> con.isWrapperFor(PGConnection.class));
+            supported = result;
+            log.info("COPY bulk load {}", result ? "enabled" : "not available, falling back to JPA");
+        }
+        return result;
+    }
+
+    /**
+     * Транзакция общая с JPA: JpaTransactionManager отдаёт JdbcTemplate то же соединение
+     */
+    @Override
+    @Transactional
+    public void saveBatch(List<DataModel> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        assignIds(batch);
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            copy(con, batch);
+            return null;
+        });
+    }
+
+    /**
+     * Pooled-оптимизатор Hibernate трактует значение sequence как верхнюю границу блока
+     * (hi - ID_BLOCK, hi], поэтому id не пересекаются с записями, сохранёнными через JPA
+     */
+    private void assignIds(List<DataModel> batch) {
+        int blocks = (batch.size() + ID_BLOCK - 1) / ID_BLOCK;
+        List<Long> hiValues = jdbcTemplate.queryForList(NEXT_BLOCKS_SQL, Long.class, blocks);
+
+        int index = 0;
+        for (long hi : hiValues) {
+            // Первое значение свежей sequence (1) даёт неполный блок
+            for (long id = Math.max(1, hi - ID_BLOCK + 1); id <= hi && index < batch.size(); id++) {
+                DataModel data = batch.get(index++);
+                data.setId(id);
+                data.setVersion(0L);
+            }
+        }
+        if (index < batch.size()) {
+            assignIds(batch.subList(index, batch.size()));
+        }
+    }
+
+    private void copy(Connection con, List<DataModel> batch) throws SQLException {
+        PGConnection pgConnection = con.unwrap(PGConnection.class);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(pgConnection, COPY_SQL, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            StringBuilder row = new StringBuilder(128);
+            for (DataModel data : batch) {
+                row.setLength(0);
+                appendRow(row, data);
+                writer.append(row);
+            }
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("COPY into parsed_data failed", e);
+        }
+    }
+
+    /**
+     * Пустое поле без кавычек в CSV-формате COPY - это NULL, пустая строка пишется как "".
+     * Timestamp - ISO-8601 из LocalDateTime.toString(), дробная часть округляется БД до микросекунд
+     */
+    static void appendRow(StringBuilder row, DataModel data) {
+        row.append(data.getId()).append(',');
+        appendQuoted(row, data.getData());
+        row.append(',').append(data.getValue()).append(',');
+        appendQuoted(row, data.getCategory());
+        row.append(',');
+        appendNullable(row, data.getTimestamp());
+        row.append(',');
+        appendNullable(row, data.getProcessingTime());
+        row.append(',');
+        appendNullable(row, data.getVersion());
+        row.append('\n');
+    }
+
+    private static void appendNullable(StringBuilder row, Object value) {
+        if (value != null) {
+            row.append(value);
+        }
+    }
+
+    private static void appendQuoted(StringBuilder row, String value) {
+        if (value == null) {
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.repository;
+
+import com.example.model.DataModel;
+
+import java.util.List;
+
+/**
+ * Пакетная запись распарсенных данных. Вызывается writer-потоками {@link com.example.parser.BatchWriter}
+ * и drainer'ом журнала {@link com.example.parser.journal.JournalRecordWriter}.
+ */
+public interface DataBatchRepository {
+
+    void saveBatch(List<DataModel> batch);
+}
@@ -1,10 +1,19 @@
 package com.example.repository;
 
 import com.example.model.DataModel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface DataRepository extends JpaRepository<DataModel, Long> {
@@ -18,6 +27,44 @@ public interface DataRepository extends JpaRepository<DataModel, Long> {
     @Query(value = "SELECT COUNT(*) FROM parsed_data", nativeQuery = true)
     Long countAll();
 
-    @Query("SELECT d FROM DataModel d WHERE d.timestamp >= CURRENT_TIMESTAMP - 1")
-    List<DataModel> findRecentData();
+    /**
+     * Материализует все записи за сутки целиком; для выгрузок - {@link #streamPageAfter}
+     */
+    default List<DataModel> findRecentData() {
+        return findSince(LocalDateTime.now().minusDays(1));
+    }
+
+    /**
+     * Граница - параметр типа timestamp, а не CURRENT_TIMESTAMP (timestamptz): так PostgreSQL
+     * отсекает партиции parsed_data, не попадающие в диапазон
+     */
+    @Query("SELECT d FROM DataModel d WHERE d.timestamp >= :from")
+    List<DataModel> findSince(LocalDateTime from);
+
+    /**
+     * Keyset-страница по (timestamp, id) после курсора. Условие d.timestamp >= :afterTs
+     * идёт первым, чтобы диапазон читался по idx_timestamp, а не сканом таблицы.
+     * Размер страницы - через Pageable без offset (PageRequest.of(0, size)).
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM DataModel d WHERE d.timestamp >= :afterTs "
+            + "AND (d.timestamp > :afterTs OR d.id > :afterId) ORDER BY d.timestamp, d.id")
+    Stream<DataModel> streamPageAfter(LocalDateTime afterTs, long afterId, Pageable page);
+
+    @Query("SELECT d.category AS category, COUNT(d) AS count, SUM(d.value) AS sum, "
+            + "MIN(d.value) AS min, MAX(d.value) AS max FROM DataModel d GROUP BY d.category")
+    List<CategoryTotals> findCategoryTotals();
+
+    /**
+     * Только значения, без гидрации сущностей; вызывать внутри транзакции и закрывать поток
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d.value FROM DataModel d WHERE d.category = :category")
+    Stream<Double> streamValuesByCategory(String category);
 }
\ No newline at end of file
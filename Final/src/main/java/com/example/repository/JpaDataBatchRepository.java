@@ -0,0 +1,26 @@
+package com.example.repository;
+
+import com.example.model.DataModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class JpaDataBatchRepository implements DataBatchRepository {
+
+    private final DataRepository dataRepository;
+
+    /**
+     * Один батч - одна транзакция. Благодаря sequence-генератору Hibernate
+     * группирует INSERT'ы по hibernate.jdbc.batch_size. Flush здесь, а не при коммите,
+     * чтобы INSERT'ы и коммит измерялись как отдельные стадии.
+     */
+    @Override
+    @Transactional
+    public void saveBatch(List<DataModel> batch) {
+        dataRepository.saveAllAndFlush(batch);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+public enum PartitionInterval {
+    /**
+     * Партиция на сутки: parsed_data_p20240131
+     */
+    DAILY(ChronoUnit.DAYS, "yyyyMMdd"),
+
+    /**
+     * Партиция на час: parsed_data_p20240131_15
+     */
+    HOURLY(ChronoUnit.HOURS, "yyyyMMdd_HH");
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter suffix;
+
+    PartitionInterval(ChronoUnit unit, String suffixPattern) {
+        this.unit = unit;
+        this.suffix = DateTimeFormatter.ofPattern(suffixPattern);
+    }
+
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime next(LocalDateTime start) {
+        return start.plus(1, unit);
+    }
+
+    public String name(String table, LocalDateTime start) {
+        return table + "_p" + suffix.format(start);
+    }
+}
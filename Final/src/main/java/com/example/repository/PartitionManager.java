@@ -0,0 +1,276 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Range-партиционирование parsed_data по timestamp (только PostgreSQL). Родительская таблица
+ * создаётся до schema update Hibernate (см. PartitioningConfig), партиции - на premake интервалов
+ * вперёд, партиции старше retention удаляются через DROP TABLE вместо массовых DELETE.
+ * Строки вне созданных диапазонов попадают в parsed_data_default: при создании партиции они
+ * переносятся в неё, а устаревшие строки default-партиции удаляются в том же проходе, что и партиции.
+ * Существующая обычная таблица не конвертируется: партиционирование для неё выключается.
+ */
+@Component
+@Slf4j
+public class PartitionManager {
+
+    static final String TABLE = "parsed_data";
+
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern RANGE = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+
+    // Типы колонок - как у Hibernate для DataModel; PK обязан включать ключ партиционирования
+    private static final String CREATE_PARENT_SQL = "CREATE TABLE " + TABLE + " ("
+            + "id bigint NOT NULL, "
+            + "data varchar(255) NOT NULL, "
+            + "value float(53) NOT NULL, "
+            + "category varchar(255) NOT NULL, "
+            + "timestamp timestamp(6) NOT NULL, "
+            + "processing_time bigint, "
+            + "version bigint, "
+            + "PRIMARY KEY (id, timestamp)"
+            + ") PARTITION BY RANGE (timestamp)";
+
+    private static final String PARTITIONS_SQL = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)";
+
+    record Partition(String name, LocalDateTime from, LocalDateTime to) {
+
+        boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherTo) {
+            return from.isBefore(otherTo) && otherFrom.isBefore(to);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ParserProperties.Partitioning settings;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Counter created;
+    private final Counter dropped;
+    private final Counter failures;
+    private final Counter defaultExpired;
+    private final AtomicInteger partitions = new AtomicInteger();
+    private volatile boolean active;
+
+    public PartitionManager(DataSource dataSource,
+                            ParserProperties properties,
+                            MeterRegistry meterRegistry,
+                            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.settings = properties.getPersistence().getPartitioning();
+        this.eventPublisher = eventPublisher;
+
+        this.created = Counter.builder("partitions.created")
+                .description("parsed_data partitions created ahead of time")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("partitions.dropped")
+                .description("parsed_data partitions dropped by the retention policy")
+                .register(meterRegistry);
+        this.failures = Counter.builder("partitions.failures")
+                .description("parsed_data partitions that could not be created; their rows stay in the default partition")
+                .register(meterRegistry);
+        this.defaultExpired = Counter.builder("partitions.default.expired")
+                .description("Rows older than retention deleted from the default partition")
+                .register(meterRegistry);
+        Gauge.builder("partitions.count", partitions, AtomicInteger::get)
+                .description("Range partitions of parsed_data, without the default one")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> con.isWrapperFor(PGConnection.class)))) {
+            log.info("Partitioning of {} needs PostgreSQL, skipped", TABLE);
+            return;
+        }
+
+        List<String> kind = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, TABLE);
+        if (kind.isEmpty()) {
+            jdbcTemplate.execute(CREATE_PARENT_SQL);
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+            log.info("Created {} partitioned by {} range of timestamp", TABLE, settings.getInterval());
+        } else if (!"p".equals(kind.get(0))) {
+            log.warn("{} already exists as a regular table, partitioning disabled until it is migrated", TABLE);
+            return;
+        }
+        active = true;
+        maintain();
+    }
+
+    @Scheduled(initialDelayString = "${parser.persistence.partitioning.maintenance-interval:PT1H}",
+            fixedDelayString = "${parser.persistence.partitioning.maintenance-interval:PT1H}")
+    public void maintain() {
+        if (!active) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Partition> existing = existingPartitions();
+
+        for (Partition partition : missing(now, existing, settings.getInterval(), settings.getPremake())) {
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition.name() + " PARTITION OF " + TABLE
+                        + " FOR VALUES FROM ('" + BOUND.format(partition.from()) + "') TO ('" + BOUND.format(partition.to()) + "')");
+                existing.add(partition);
+                created.increment();
+                log.info("Created partition {} [{}, {})", partition.name(), partition.from(), partition.to());
+            } catch (DataAccessException e) {
+                // Обычно строки этого диапазона уже лежат в default-партиции - переносим их
+                try {
+                    int moved = createFromDefault(partition);
+                    existing.add(partition);
+                    created.increment();
+                    log.info("Created partition {} [{}, {}) with {} rows moved from {}",
+                            partition.name(), partition.from(), partition.to(), moved, DEFAULT_PARTITION);
+                } catch (DataAccessException moveFailure) {
+                    moveFailure.addSuppressed(e);
+                    failures.increment();
+                    log.error("Could not create partition {}, its rows stay in {}",
+                            partition.name(), DEFAULT_PARTITION, moveFailure);
+                }
+            }
+        }
+
+        List<String> expiredNames = new ArrayList<>();
+        for (Partition partition : expired(now, existing, settings.getRetention())) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.name());
+            existing.remove(partition);
+            expiredNames.add(partition.name());
+            dropped.increment();
+            log.info("Dropped partition {} (older than {})", partition.name(), settings.getRetention());
+        }
+        if (!settings.getRetention().isZero()) {
+            int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?",
+                    now.minus(settings.getRetention()));
+            if (deleted > 0) {
+                expiredNames.add(DEFAULT_PARTITION);
+                defaultExpired.increment(deleted);
+                log.info("Deleted {} rows older than {} from {}", deleted, settings.getRetention(), DEFAULT_PARTITION);
+            }
+        }
+
+        partitions.set(existing.size());
+        if (!expiredNames.isEmpty()) {
+            eventPublisher.publishEvent(new PartitionsDroppedEvent(expiredNames));
+        }
+    }
+
+    /**
+     * Отдельная таблица, перенос в неё строк диапазона из default-партиции и ATTACH - одной
+     * транзакцией: ATTACH проверяет, что в default-партиции не осталось строк нового диапазона
+     *
+     * @return число перенесённых строк
+     */
+    private int createFromDefault(Partition partition) {
+        String from = BOUND.format(partition.from());
+        String to = BOUND.format(partition.to());
+        return Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (Statement statement = con.createStatement()) {
+                statement.execute("CREATE TABLE " + partition.name()
+                        + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                int moved = statement.executeUpdate("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                        + " WHERE timestamp >= '" + from + "' AND timestamp < '" + to + "' RETURNING *) "
+                        + "INSERT INTO " + partition.name() + " SELECT * FROM moved");
+                statement.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition.name()
+                        + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+                con.commit();
+                return moved;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }));
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    private List<Partition> existingPartitions() {
+        List<Partition> result = new ArrayList<>();
+        jdbcTemplate.query(PARTITIONS_SQL, rs -> {
+            Partition partition = parse(rs.getString(1), rs.getString(2));
+            if (partition != null) {
+                result.add(partition);
+            }
+        }, TABLE);
+        return result;
+    }
+
+    /**
+     * Текущий интервал и premake следующих, которые не пересекаются с уже существующими партициями
+     */
+    static List<Partition> missing(LocalDateTime now, List<Partition> existing, PartitionInterval interval, int premake) {
+        List<Partition> result = new ArrayList<>();
+        LocalDateTime from = interval.floor(now);
+        for (int i = 0; i <= premake; i++) {
+            LocalDateTime to = interval.next(from);
+            LocalDateTime candidateFrom = from;
+            if (existing.stream().noneMatch(partition -> partition.overlaps(candidateFrom, to))) {
+                result.add(new Partition(interval.name(TABLE, from), from, to));
+            }
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * Партиции, все строки которых старше retention; Duration.ZERO - хранить всё
+     */
+    static List<Partition> expired(LocalDateTime now, List<Partition> existing, Duration retention) {
+        if (retention.isZero()) {
+            return List.of();
+        }
+        LocalDateTime cutoff = now.minus(retention);
+        return existing.stream()
+                .filter(partition -> !partition.to().isAfter(cutoff))
+                .toList();
+    }
+
+    /**
+     * @param bound pg_get_expr(relpartbound), например FOR VALUES FROM ('2024-01-31 00:00:00') TO ('2024-02-01 00:00:00');
+     *              null для default-партиции и границ MINVALUE/MAXVALUE
+     */
+    static Partition parse(String name, String bound) {
+        Matcher matcher = RANGE.matcher(Objects.requireNonNullElse(bound, ""));
+        if (!matcher.find()) {
+            return null;
+        }
+        return new Partition(name,
+                LocalDateTime.parse(matcher.group(1).replace(' ', 'T')),
+                LocalDateTime.parse(matcher.group(2).replace(' ', 'T')));
+    }
+}
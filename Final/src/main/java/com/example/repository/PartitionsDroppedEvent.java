@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import java.util.List;
+
+/**
+ * Публикуется {@link PartitionManager} после удаления партиций по retention. Если из
+ * default-партиции удалены устаревшие строки, в списке есть и она.
+ */
+public record PartitionsDroppedEvent(List<String> partitions) {
+}
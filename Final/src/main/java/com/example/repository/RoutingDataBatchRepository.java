@@ -0,0 +1,111 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.profiling.DbFlushEvent;
+import com.example.stage.PipelineStage;
+import com.example.stage.StageRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+
+/**
+ * Выбирает способ записи по размеру батча: большие батчи - COPY, если БД его поддерживает,
+ * остальные - JPA с JDBC-батчингом. Число одновременных записей ограничивает
+ * {@link WriteConcurrencyLimiter}. Транзакция открывается здесь явно, чтобы разделить
+ * время на получение соединения, INSERT'ы и коммит ({@link StageRecorder}).
+ */
+@Repository
+@Primary
+public class RoutingDataBatchRepository implements DataBatchRepository {
+
+    private final JpaDataBatchRepository jpaRepository;
+    private final CopyDataBatchRepository copyRepository;
+    private final WriteConcurrencyLimiter limiter;
+    private final PlatformTransactionManager transactionManager;
+    private final StageRecorder stageRecorder;
+    private final int copyThreshold;
+
+    private final Counter jpaBatches;
+    private final Counter copyBatches;
+
+    public RoutingDataBatchRepository(JpaDataBatchRepository jpaRepository,
+                                      CopyDataBatchRepository copyRepository,
+                                      WriteConcurrencyLimiter limiter,
+                                      PlatformTransactionManager transactionManager,
+                                      StageRecorder stageRecorder,
+                                      ParserProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.jpaRepository = jpaRepository;
+        this.copyRepository = copyRepository;
+        this.limiter = limiter;
+        this.transactionManager = transactionManager;
+        this.stageRecorder = stageRecorder;
+        this.copyThreshold = properties.getPersistence().getCopyThreshold();
+
+        this.jpaBatches = Counter.builder("db.batches")
+                .description("Batches written, by write path")
+                .tag("path", "jpa")
+                .register(meterRegistry);
+        this.copyBatches = Counter.builder("db.batches")
+                .description("Batches written, by write path")
+                .tag("path", "copy")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void saveBatch(List<DataModel> batch) {
+        // Путь выбираем до лимитера: он ведёт задержку отдельно для COPY и JPA
+        boolean copy = copyThreshold > 0 && batch.size() >= copyThreshold && copyRepository.isSupported();
+        limiter.execute(copy ? "copy" : "jpa", batch.size(), () -> write(batch, copy));
+    }
+
+    private void write(List<DataModel> batch, boolean copy) {
+        DbFlushEvent event = new DbFlushEvent();
+        event.begin();
+        long start = System.nanoTime();
+        // JpaTransactionManager берёт соединение из пула уже при begin
+        TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        long acquired = System.nanoTime();
+        stageRecorder.record(PipelineStage.CONNECTION_ACQUIRE, acquired - start);
+
+        try {
+            event.path = insert(batch, copy);
+        } catch (RuntimeException | Error e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        long inserted = System.nanoTime();
+        stageRecorder.record(PipelineStage.INSERT, inserted - acquired);
+
+        transactionManager.commit(transaction);
+        long committed = System.nanoTime();
+        stageRecorder.record(PipelineStage.COMMIT, committed - inserted);
+
+        event.rows = batch.size();
+        event.acquireNanos = acquired - start;
+        event.insertNanos = inserted - acquired;
+        event.commitNanos = committed - inserted;
+        event.commit();
+    }
+
+    /**
+     * @return выбранный путь записи, jpa или copy
+     */
+    private String insert(List<DataModel> batch, boolean copy) {
+        if (copy) {
+            copyRepository.saveBatch(batch);
+            copyBatches.increment();
+            return "copy";
+        }
+        jpaRepository.saveBatch(batch);
+        jpaBatches.increment();
+        return "jpa";
+    }
+}
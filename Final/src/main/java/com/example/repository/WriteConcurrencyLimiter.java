@@ -0,0 +1,224 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.example.parser.WriteMode;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивный лимит одновременных записей в БД (градиентный алгоритм, как Gradient2 в
+ * concurrency-limits). Сравнивает задержку последнего батча в пересчёте на строку с
+ * долгосрочной средней своего пути записи (COPY на строку в разы дешевле JPA, общая средняя
+ * принимала бы смену пути за перегрузку): пока они близки, лимит растёт на sqrt(limit), при росте
+ * задержки умножается на градиент long/short (не меньше 0.5). Потолок - пул Hikari без резерва
+ * под чтение. Записи сверх лимита ждут слот до acquireTimeout, затем батч отклоняется.
+ */
+@Component
+@Slf4j
+public class WriteConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ParserProperties.Limiter settings;
+    private final int maxLimit;
+    private final long acquireTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private final Map<String, Double> longLatency = new HashMap<>();
+    private int inFlight;
+    private int waiting;
+
+    private final Counter rejections;
+    private final Timer waitTimer;
+
+    public WriteConcurrencyLimiter(DataSource dataSource, ParserProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getPersistence().getLimiter();
+        this.maxLimit = settings.getMaxLimit() > 0
+                ? settings.getMaxLimit()
+                : Math.max(settings.getMinLimit(), poolSize(dataSource) - settings.getPoolReserve());
+        this.limit = Math.max(settings.getMinLimit(), Math.min(maxLimit, settings.getInitialLimit()));
+        this.acquireTimeoutNanos = settings.getAcquireTimeout().toNanos();
+
+        Gauge.builder("db.limiter.limit", this, WriteConcurrencyLimiter::limit)
+                .description("Current limit on concurrent database writes")
+                .register(meterRegistry);
+
+        Gauge.builder("db.limiter.inflight", this, WriteConcurrencyLimiter::inFlight)
+                .description("Database writes currently holding a limiter slot")
+                .register(meterRegistry);
+
+        Gauge.builder("db.limiter.waiting", this, WriteConcurrencyLimiter::waiting)
+                .description("Database writes waiting for a limiter slot")
+                .register(meterRegistry);
+
+        rejections = Counter.builder("db.limiter.rejections")
+                .description("Batches rejected after waiting acquire-timeout for a slot")
+                .register(meterRegistry);
+
+        waitTimer = Timer.builder("db.limiter.wait")
+                .description("Time spent waiting for a limiter slot")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        log.info("Write concurrency limiter: enabled={}, limit={}, max={}", settings.isEnabled(), limit(), maxLimit);
+        ParserProperties.Persistence persistence = properties.getPersistence();
+        if (settings.isEnabled() && persistence.getMode() == WriteMode.DIRECT && persistence.getWriterThreads() < maxLimit) {
+            log.warn("writer-threads={} is below the write limit ceiling {}, the limit above it will never fill",
+                    persistence.getWriterThreads(), maxLimit);
+        }
+    }
+
+    /**
+     * Выполняет запись батча из rows строк, если есть свободный слот
+     *
+     * @param path путь записи (jpa, copy); у каждого своя долгосрочная задержка
+     * @throws WriteRejectedException если слот не освободился за acquireTimeout
+     */
+    public void execute(String path, int rows, Runnable write) {
+        if (!settings.isEnabled()) {
+            write.run();
+            return;
+        }
+
+        acquire();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            write.run();
+            succeeded = true;
+        } finally {
+            release(path, (System.nanoTime() - start) / (double) Math.max(1, rows), succeeded);
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            long remaining = acquireTimeoutNanos;
+            waiting++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejections.increment();
+                        throw new WriteRejectedException(
+                                "Database write limit of " + (int) limit + " reached, batch rejected");
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransientDataAccessResourceException("Interrupted while waiting for a write slot", e);
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release(String path, double latencyPerRow, boolean succeeded) {
+        lock.lock();
+        try {
+            int observedInFlight = inFlight;
+            inFlight--;
+            onSample(path, latencyPerRow, observedInFlight, succeeded);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Вызывается под lock
+    void onSample(String path, double latency, int observedInFlight, boolean succeeded) {
+        if (!succeeded) {
+            // Таймаут пула или ошибка БД - сразу максимальное снижение
+            setLimit(limit * MIN_GRADIENT);
+            return;
+        }
+
+        latency = Math.max(latency, 1);
+        Double previous = longLatency.get(path);
+        double baseline = previous == null
+                ? latency
+                : previous + (latency - previous) * 2 / (settings.getLongWindow() + 1);
+        // После перегрузки долгосрочная средняя завышена - даём ей быстрее опуститься
+        if (baseline / latency > 2) {
+            baseline *= 0.95;
+        }
+        longLatency.put(path, baseline);
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, settings.getTolerance() * baseline / latency));
+        // Писатели не загружают и половины лимита - наращивать его незачем, но рост задержки учитываем всегда
+        boolean saturated = observedInFlight >= limit / 2;
+        if (!saturated && gradient >= 1.0) {
+            return;
+        }
+        double target = limit * gradient + (saturated ? Math.sqrt(limit) : 0);
+        setLimit(limit * (1 - settings.getSmoothing()) + target * settings.getSmoothing());
+    }
+
+    private void setLimit(double newLimit) {
+        double clamped = Math.max(settings.getMinLimit(), Math.min(maxLimit, newLimit));
+        if ((int) clamped != (int) limit) {
+            log.debug("Write limit {} -> {}", (int) limit, (int) clamped);
+        }
+        limit = clamped;
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read connection pool size", e);
+        }
+        return 10;
+    }
+}
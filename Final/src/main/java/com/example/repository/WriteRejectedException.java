@@ -0,0 +1,14 @@
+package com.example.repository;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Батч отклонён {@link WriteConcurrencyLimiter} до обращения к БД: ни одна строка не записана,
+ * id не назначены, поэтому батч можно безопасно отправить повторно.
+ */
+public class WriteRejectedException extends TransientDataAccessResourceException {
+
+    public WriteRejectedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.stage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Разбивка по стадиям за интервал, закрытый завершением одного parseData
+ */
+public record BatchBreakdown(Instant completedAt, int batchSize, double durationMillis,
+                             Map<String, StageStats> stages) {
+}
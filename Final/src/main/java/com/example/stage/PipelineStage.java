@@ -0,0 +1,36 @@
+package com.example.stage;
+
+/**
+ * Стадии пути записи от постановки в пул парсера до коммита в БД
+ */
+public enum PipelineStage {
+
+    /**
+     * От отправки задачи в движок до начала её выполнения
+     */
+    QUEUE_WAIT("queue_wait"),
+
+    PARSE("parse"),
+
+    /**
+     * Начало транзакции записи; в нём же Hibernate берёт соединение из пула
+     */
+    CONNECTION_ACQUIRE("connection_acquire"),
+
+    /**
+     * INSERT'ы батча (flush JPA или COPY) до коммита
+     */
+    INSERT("insert"),
+
+    COMMIT("commit");
+
+    private final String tag;
+
+    PipelineStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.stage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/parserstages - p50/p99 по стадиям за последние батчи и с момента старта
+ */
+@Component
+@Endpoint(id = "parserstages")
+@RequiredArgsConstructor
+public class StageBreakdownEndpoint {
+
+    private final StageRecorder stageRecorder;
+
+    @ReadOperation
+    public Map<String, Object> stages() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", stageRecorder.totals());
+        result.put("recent", stageRecorder.recentBatches());
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.stage;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Длительности стадий пайплайна на HdrHistogram Recorder: запись wait-free и без аллокаций,
+ * гистограммы интервала переиспользуются. Интервал закрывается в конце каждого parseData:
+ * его разбивка попадает в список последних батчей, в накопительную гистограмму и в Micrometer
+ * (parser.stage.duration - count/total, parser.stage.latency - p50/p99 последнего батча).
+ *
+ * Запись в БД идёт асинхронно, поэтому стадии writer-потоков относятся к тому батчу,
+ * в интервал которого завершились.
+ */
+@Component
+public class StageRecorder {
+
+    static final int RECENT_BATCHES = 20;
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<PipelineStage, Recorder> recorders = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, Histogram> intervals = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, Histogram> totals = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, StageStats> latest = new EnumMap<>(PipelineStage.class);
+    private final Deque<BatchBreakdown> recent = new ArrayDeque<>(RECENT_BATCHES);
+
+    public StageRecorder(MeterRegistry meterRegistry) {
+        for (PipelineStage stage : PipelineStage.values()) {
+            recorders.put(stage, new Recorder(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS));
+            totals.put(stage, new Histogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS));
+            latest.put(stage, StageStats.EMPTY);
+
+            FunctionTimer.builder("parser.stage.duration", this,
+                            recorder -> recorder.totalCount(stage),
+                            recorder -> recorder.totalNanos(stage),
+                            TimeUnit.NANOSECONDS)
+                    .description("Time spent in a pipeline stage, flushed after each parse batch")
+                    .tag("stage", stage.tag())
+                    .register(meterRegistry);
+
+            latencyGauge(meterRegistry, stage, "0.5", StageStats::p50);
+            latencyGauge(meterRegistry, stage, "0.99", StageStats::p99);
+        }
+    }
+
+    public void record(PipelineStage stage, long nanos) {
+        recorders.get(stage).recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE));
+    }
+
+    /**
+     * Закрывает интервал текущего батча
+     */
+    public synchronized BatchBreakdown completeBatch(int batchSize, long durationNanos) {
+        Map<String, StageStats> stages = new LinkedHashMap<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            Histogram recycled = intervals.get(stage);
+            Histogram interval = recycled == null
+                    ? recorders.get(stage).getIntervalHistogram()
+                    : recorders.get(stage).getIntervalHistogram(recycled);
+            intervals.put(stage, interval);
+            totals.get(stage).add(interval);
+
+            StageStats stats = stats(interval);
+            latest.put(stage, stats);
+            stages.put(stage.tag(), stats);
+        }
+
+        BatchBreakdown breakdown = new BatchBreakdown(Instant.now(), batchSize,
+                durationNanos / NANOS_PER_MILLI, Collections.unmodifiableMap(stages));
+        if (recent.size() == RECENT_BATCHES) {
+            recent.removeLast();
+        }
+        recent.addFirst(breakdown);
+        return breakdown;
+    }
+
+    /**
+     * Последние батчи, от новых к старым
+     */
+    public synchronized List<BatchBreakdown> recentBatches() {
+        return new ArrayList<>(recent);
+    }
+
+    /**
+     * Распределения с момента старта
+     */
+    public synchronized Map<String, StageStats> totals() {
+        Map<String, StageStats> result = new LinkedHashMap<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            result.put(stage.tag(), stats(totals.get(stage)));
+        }
+        return result;
+    }
+
+    private synchronized long totalCount(PipelineStage stage) {
+        return totals.get(stage).getTotalCount();
+    }
+
+    private synchronized double totalNanos(PipelineStage stage) {
+        Histogram histogram = totals.get(stage);
+        return histogram.getMean() * histogram.getTotalCount();
+    }
+
+    private synchronized StageStats latest(PipelineStage stage) {
+        return latest.get(stage);
+    }
+
+    private void latencyGauge(MeterRegistry meterRegistry, PipelineStage stage, String quantile,
+                              ToDoubleFunction<StageStats> value) {
+        TimeGauge.builder("parser.stage.latency", this, TimeUnit.MILLISECONDS,
+                        recorder -> value.applyAsDouble(recorder.latest(stage)))
+                .description("Stage latency percentile over the most recent parse batch")
+                .tag("stage", stage.tag())
+                .tag("quantile", quantile)
+                .register(meterRegistry);
+    }
+
+    private static StageStats stats(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return StageStats.EMPTY;
+        }
+        return new StageStats(histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.stage;
+
+/**
+ * Распределение длительности одной стадии, в миллисекундах
+ */
+public record StageStats(long count, double p50, double p99, double max) {
+
+    static final StageStats EMPTY = new StageStats(0, 0, 0, 0);
+}
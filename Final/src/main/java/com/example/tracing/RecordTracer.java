@@ -0,0 +1,101 @@
+package com.example.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Трассировка отдельных записей с учётом {@link TracingMode}. В режиме BATCH_ONLY
+ * дочерние спаны не создаются: время записи уходит событием в спан батча и в гистограмму.
+ */
+public class RecordTracer {
+
+    public static final String RECORD_SPAN = "parseRecord";
+    public static final String PARSE_SPAN = "parseSingleRecord";
+    public static final Set<String> RECORD_SPAN_NAMES = Set.of(RECORD_SPAN, PARSE_SPAN);
+
+    static final AttributeKey<Boolean> ERROR = AttributeKey.booleanKey("error");
+    private static final AttributeKey<Long> RECORD_NUMBER = AttributeKey.longKey("record.number");
+    private static final AttributeKey<Long> DURATION_NANOS = AttributeKey.longKey("duration.ns");
+
+    private final Tracer tracer;
+    private final TracingMode mode;
+    private final Timer recordTimer;
+
+    public RecordTracer(Tracer tracer, TracingMode mode, MeterRegistry meterRegistry) {
+        this.tracer = tracer;
+        this.mode = mode;
+        this.recordTimer = Timer.builder("parser.record.duration")
+                .description("Time taken to parse a single record")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public TracingMode mode() {
+        return mode;
+    }
+
+    /**
+     * Выполняет обработку записи внутри её спана (или без спана в режиме BATCH_ONLY).
+     */
+    public <T> T traceRecord(Span batchSpan, int recordNumber, Supplier<T> work) {
+        if (mode == TracingMode.BATCH_ONLY) {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                T result = work.get();
+                failed = false;
+                return result;
+            } finally {
+                long duration = System.nanoTime() - start;
+                recordTimer.record(duration, TimeUnit.NANOSECONDS);
+                batchSpan.addEvent(RECORD_SPAN, Attributes.of(
+                        RECORD_NUMBER, (long) recordNumber,
+                        DURATION_NANOS, duration,
+                        ERROR, failed));
+            }
+        }
+
+        Span recordSpan = tracer.spanBuilder(RECORD_SPAN)
+                .setParent(Context.current().with(batchSpan))
+                .setAttribute(RECORD_NUMBER, (long) recordNumber)
+                .startSpan();
+        long start = System.nanoTime();
+
+        try (Scope ignored = recordSpan.makeCurrent()) {
+            return work.get();
+        } catch (RuntimeException e) {
+            markFailed(recordSpan, e);
+            throw e;
+        } finally {
+            recordTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            recordSpan.end();
+        }
+    }
+
+    /**
+     * Дочерний спан парсинга; в режиме BATCH_ONLY - невалидный спан без аллокаций.
+     */
+    public Span startParseSpan() {
+        if (mode == TracingMode.BATCH_ONLY) {
+            return Span.getInvalid();
+        }
+        return tracer.spanBuilder(PARSE_SPAN).startSpan();
+    }
+
+    public void markFailed(Span span, Throwable e) {
+        span.recordException(e);
+        span.setStatus(StatusCode.ERROR);
+        span.setAttribute(ERROR, true);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.Collection;
+
+/**
+ * Экспорт в {@link SpanRingBuffer} внутри процесса: не зависит от коллектора и никогда
+ * не отказывает, старые спаны просто вытесняются новыми.
+ */
+public class RingBufferSpanExporter implements SpanExporter {
+
+    private final SpanRingBuffer buffer;
+
+    public RingBufferSpanExporter(SpanRingBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            String traceId = span.getTraceId();
+            SpanContext parent = span.getParentSpanContext();
+            boolean error = span.getStatus().getStatusCode() == StatusCode.ERROR
+                    || Boolean.TRUE.equals(span.getAttributes().get(RecordTracer.ERROR));
+
+            buffer.add(Long.parseUnsignedLong(traceId, 0, 16, 16),
+                    Long.parseUnsignedLong(traceId, 16, 32, 16),
+                    Long.parseUnsignedLong(span.getSpanId(), 16),
+                    parent.isValid() ? Long.parseUnsignedLong(parent.getSpanId(), 16) : 0,
+                    span.getName(),
+                    span.getStartEpochNanos(),
+                    span.getEndEpochNanos() - span.getStartEpochNanos(),
+                    error);
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
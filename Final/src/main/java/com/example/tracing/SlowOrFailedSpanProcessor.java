@@ -0,0 +1,61 @@
+package com.example.tracing;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Tail-фильтр перед экспортом: спаны записей передаются дальше, только если они медленные
+ * или помечены как ошибочные. Остальные спаны (батч и прочие) проходят без изменений.
+ */
+public class SlowOrFailedSpanProcessor implements SpanProcessor {
+
+    private final SpanProcessor delegate;
+    private final long thresholdNanos;
+    private final Set<String> recordSpanNames;
+
+    public SlowOrFailedSpanProcessor(SpanProcessor delegate, Duration threshold, Set<String> recordSpanNames) {
+        this.delegate = delegate;
+        this.thresholdNanos = threshold.toNanos();
+        this.recordSpanNames = recordSpanNames;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return delegate.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!recordSpanNames.contains(span.getName())
+                || span.getLatencyNanos() >= thresholdNanos
+                || Boolean.TRUE.equals(span.getAttribute(RecordTracer.ERROR))) {
+            delegate.onEnd(span);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+}
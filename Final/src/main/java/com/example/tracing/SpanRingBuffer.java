@@ -0,0 +1,145 @@
+package com.example.tracing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер завершённых спанов вне heap: слот фиксированного размера на спан, память
+ * ограничена capacity * SLOT_SIZE. Писатели занимают слот через getAndIncrement без блокировок,
+ * читатель проверяет штамп слота до и после чтения (seqlock) и пропускает слоты, которые
+ * в этот момент перезаписываются.
+ *
+ * Слот: stamp, traceId (2 long), spanId, parentSpanId, start (epoch ns), длительность (ns), имя, флаги.
+ */
+public class SpanRingBuffer {
+
+    static final int SLOT_SIZE = 64;
+    static final int MAX_NAMES = 1024;
+
+    private static final int STAMP = 0;
+    private static final int TRACE_HI = 8;
+    private static final int TRACE_LO = 16;
+    private static final int SPAN_ID = 24;
+    private static final int PARENT_ID = 32;
+    private static final int START = 40;
+    private static final int DURATION = 48;
+    private static final int NAME = 56;
+    private static final int FLAGS = 60;
+
+    private static final int FLAG_ERROR = 1;
+    private static final String OVERFLOW_NAME = "<other>";
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentHashMap<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(MAX_NAMES);
+
+    /**
+     * @param capacity число спанов, округляется вверх до степени двойки
+     */
+    public SpanRingBuffer(int capacity) {
+        int slotsCount = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = ByteBuffer.allocateDirect(slotsCount * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        this.mask = slotsCount - 1;
+        names.set(0, OVERFLOW_NAME);
+        nameIds.put(OVERFLOW_NAME, 0);
+    }
+
+    public void add(long traceIdHigh, long traceIdLow, long spanId, long parentSpanId,
+                    String name, long startEpochNanos, long durationNanos, boolean error) {
+        long seq = sequence.getAndIncrement();
+        int base = (int) (seq & mask) * SLOT_SIZE;
+
+        // 0 - слот пишется; читатель его пропустит
+        LONGS.setOpaque(slots, base + STAMP, 0L);
+        VarHandle.storeStoreFence();
+        slots.putLong(base + TRACE_HI, traceIdHigh);
+        slots.putLong(base + TRACE_LO, traceIdLow);
+        slots.putLong(base + SPAN_ID, spanId);
+        slots.putLong(base + PARENT_ID, parentSpanId);
+        slots.putLong(base + START, startEpochNanos);
+        slots.putLong(base + DURATION, durationNanos);
+        slots.putInt(base + NAME, nameId(name));
+        slots.putInt(base + FLAGS, error ? FLAG_ERROR : 0);
+        LONGS.setRelease(slots, base + STAMP, seq + 1);
+    }
+
+    /**
+     * Копия содержимого буфера, от старых спанов к новым
+     */
+    public List<StoredSpan> snapshot() {
+        long end = sequence.get();
+        long begin = Math.max(0, end - capacity());
+        List<StoredSpan> result = new ArrayList<>((int) (end - begin));
+
+        for (long seq = begin; seq < end; seq++) {
+            int base = (int) (seq & mask) * SLOT_SIZE;
+            long stamp = (long) LONGS.getAcquire(slots, base + STAMP);
+            if (stamp != seq + 1) {
+                // Ещё не дописан или уже перезаписан следующим кругом
+                continue;
+            }
+            StoredSpan span = new StoredSpan(
+                    slots.getLong(base + TRACE_HI), slots.getLong(base + TRACE_LO),
+                    slots.getLong(base + SPAN_ID), slots.getLong(base + PARENT_ID),
+                    name(slots.getInt(base + NAME)),
+                    slots.getLong(base + START), slots.getLong(base + DURATION),
+                    (slots.getInt(base + FLAGS) & FLAG_ERROR) != 0);
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getAcquire(slots, base + STAMP) == stamp) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long written() {
+        return sequence.get();
+    }
+
+    public int size() {
+        return (int) Math.min(sequence.get(), capacity());
+    }
+
+    private int nameId(String name) {
+        Integer id = nameIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        // Словарь ограничен: имена спанов - конечное множество, лишние сводятся в одно
+        synchronized (nameIds) {
+            id = nameIds.get(name);
+            if (id == null) {
+                int next = nameIds.size();
+                if (next >= MAX_NAMES) {
+                    return 0;
+                }
+                names.set(next, name);
+                nameIds.put(name, next);
+                id = next;
+            }
+            return id;
+        }
+    }
+
+    private String name(int id) {
+        String name = names.get(id);
+        return name != null ? name : OVERFLOW_NAME;
+    }
+}
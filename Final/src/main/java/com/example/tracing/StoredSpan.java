@@ -0,0 +1,43 @@
+package com.example.tracing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Спан, прочитанный из {@link SpanRingBuffer}. parentSpanId == 0 - корневой спан.
+ * В JSON идентификаторы отдаются в hex, как в OTLP.
+ */
+public record StoredSpan(@JsonIgnore long traceIdHigh,
+                         @JsonIgnore long traceIdLow,
+                         @JsonIgnore long spanId,
+                         @JsonIgnore long parentSpanId,
+                         String name,
+                         long startEpochNanos,
+                         long durationNanos,
+                         boolean error) {
+
+    @JsonProperty("traceId")
+    public String traceId() {
+        return String.format("%016x%016x", traceIdHigh, traceIdLow);
+    }
+
+    @JsonProperty("spanId")
+    public String spanIdHex() {
+        return String.format("%016x", spanId);
+    }
+
+    @JsonProperty("parentSpanId")
+    public String parentSpanIdHex() {
+        return parentSpanId == 0 ? null : String.format("%016x", parentSpanId);
+    }
+
+    @JsonIgnore
+    public long endEpochNanos() {
+        return startEpochNanos + durationNanos;
+    }
+
+    @JsonProperty("durationMillis")
+    public double durationMillis() {
+        return durationNanos / 1_000_000.0;
+    }
+}
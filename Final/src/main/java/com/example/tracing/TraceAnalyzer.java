@@ -0,0 +1,131 @@
+package com.example.tracing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Разбор снимка {@link SpanRingBuffer}: самые медленные трейсы, распределение
+ * длительностей и доля ошибок по имени спана. Считается при запросе, на пути записи ничего нет.
+ */
+public final class TraceAnalyzer {
+
+    /**
+     * Верхние границы корзин гистограммы, мс; последняя корзина - всё, что больше
+     */
+    static final double[] BUCKETS_MILLIS = {0.1, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    public record TraceSummary(String traceId, String rootName, double durationMillis, int spans, int errors) {
+    }
+
+    public record SpanNameStats(long count, double errorRate, double p50Millis, double p90Millis,
+                                double p99Millis, double maxMillis, Map<String, Long> histogram) {
+    }
+
+    private TraceAnalyzer() {
+    }
+
+    /**
+     * Трейсы по убыванию длительности: от начала первого до конца последнего спана трейса
+     */
+    public static List<TraceSummary> slowestTraces(List<StoredSpan> spans, int limit) {
+        Map<String, List<StoredSpan>> traces = new HashMap<>();
+        for (StoredSpan span : spans) {
+            traces.computeIfAbsent(span.traceId(), id -> new ArrayList<>()).add(span);
+        }
+
+        return traces.entrySet().stream()
+                .map(entry -> summarize(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(TraceSummary::durationMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public static Map<String, SpanNameStats> byName(List<StoredSpan> spans) {
+        Map<String, List<StoredSpan>> byName = new TreeMap<>();
+        for (StoredSpan span : spans) {
+            byName.computeIfAbsent(span.name(), name -> new ArrayList<>()).add(span);
+        }
+
+        Map<String, SpanNameStats> result = new LinkedHashMap<>();
+        byName.forEach((name, group) -> result.put(name, stats(group)));
+        return result;
+    }
+
+    public static List<StoredSpan> trace(List<StoredSpan> spans, String traceId) {
+        return spans.stream()
+                .filter(span -> span.traceId().equals(traceId))
+                .sorted(Comparator.comparingLong(StoredSpan::startEpochNanos))
+                .toList();
+    }
+
+    private static TraceSummary summarize(String traceId, List<StoredSpan> spans) {
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        int errors = 0;
+        StoredSpan root = null;
+        for (StoredSpan span : spans) {
+            start = Math.min(start, span.startEpochNanos());
+            end = Math.max(end, span.endEpochNanos());
+            if (span.error()) {
+                errors++;
+            }
+            if (root == null || isBetterRoot(span, root)) {
+                root = span;
+            }
+        }
+        return new TraceSummary(traceId, root.name(), (end - start) / 1_000_000.0, spans.size(), errors);
+    }
+
+    // Корень мог быть вытеснен из буфера - тогда берём самый ранний спан
+    private static boolean isBetterRoot(StoredSpan candidate, StoredSpan current) {
+        boolean candidateIsRoot = candidate.parentSpanId() == 0;
+        if (candidateIsRoot != (current.parentSpanId() == 0)) {
+            return candidateIsRoot;
+        }
+        return candidate.startEpochNanos() < current.startEpochNanos();
+    }
+
+    private static SpanNameStats stats(List<StoredSpan> spans) {
+        long[] durations = new long[spans.size()];
+        long errors = 0;
+        long[] buckets = new long[BUCKETS_MILLIS.length + 1];
+        for (int i = 0; i < durations.length; i++) {
+            StoredSpan span = spans.get(i);
+            durations[i] = span.durationNanos();
+            if (span.error()) {
+                errors++;
+            }
+            buckets[bucket(span.durationMillis())]++;
+        }
+        Arrays.sort(durations);
+
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            histogram.put(i < BUCKETS_MILLIS.length ? "le_" + BUCKETS_MILLIS[i] : "gt_" + BUCKETS_MILLIS[i - 1], buckets[i]);
+        }
+
+        return new SpanNameStats(durations.length, (double) errors / durations.length,
+                percentile(durations, 0.5), percentile(durations, 0.9), percentile(durations, 0.99),
+                durations[durations.length - 1] / 1_000_000.0, histogram);
+    }
+
+    private static int bucket(double millis) {
+        for (int i = 0; i < BUCKETS_MILLIS.length; i++) {
+            if (millis <= BUCKETS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKETS_MILLIS.length;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/traces?limit=20 - самые медленные трейсы и статистика по именам спанов
+ * из локального буфера; /actuator/traces/{traceId} - спаны одного трейса.
+ */
+@Component
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SpanRingBuffer spanRingBuffer;
+
+    @ReadOperation
+    public Map<String, Object> summary(@Nullable Integer limit) {
+        List<StoredSpan> spans = spanRingBuffer.snapshot();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("capacity", spanRingBuffer.capacity());
+        result.put("written", spanRingBuffer.written());
+        result.put("spans", spans.size());
+        result.put("slowestTraces", TraceAnalyzer.slowestTraces(spans, limit != null ? limit : DEFAULT_LIMIT));
+        result.put("byName", TraceAnalyzer.byName(spans));
+        return result;
+    }
+
+    @ReadOperation
+    public List<StoredSpan> trace(@Selector String traceId) {
+        return TraceAnalyzer.trace(spanRingBuffer.snapshot(), traceId);
+    }
+}
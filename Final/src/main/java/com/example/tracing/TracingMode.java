@@ -0,0 +1,20 @@
+package com.example.tracing;
+
+public enum TracingMode {
+    /**
+     * Все спаны батча и записей экспортируются
+     */
+    FULL,
+    /**
+     * Parent-based сэмплинг по доле trace id
+     */
+    RATIO,
+    /**
+     * Спаны записей экспортируются, только если запись медленная или упала
+     */
+    TAIL,
+    /**
+     * Только спан батча, время записей - события спана и гистограмма
+     */
+    BATCH_ONLY
+}
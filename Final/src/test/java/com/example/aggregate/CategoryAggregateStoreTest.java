@@ -0,0 +1,101 @@
+package com.example.aggregate;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.parser.DataFlushedEvent;
+import com.example.repository.CategoryQueryCache;
+import com.example.repository.CategoryTotals;
+import com.example.repository.DataRepository;
+import com.example.repository.PartitionsDroppedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryAggregateStoreTest {
+
+    private DataRepository dataRepository;
+    private CategoryAggregateStore store;
+    private CategoryQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        dataRepository = mock(DataRepository.class);
+        ParserProperties properties = new ParserProperties();
+        properties.getAggregates().setDriftTolerance(2);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        store = new CategoryAggregateStore(dataRepository, meterRegistry, properties,
+                mock(PlatformTransactionManager.class));
+        store.init();
+        queryService = new CategoryQueryService(store, new CategoryQueryCache(dataRepository, meterRegistry, properties));
+    }
+
+    @Test
+    void testFlushEventsUpdateAggregates() {
+        store.onFlushed(new DataFlushedEvent(List.of(record("A", 10), record("A", 30), record("B", 5))));
+
+        CategoryStats stats = queryService.stats("A").orElseThrow();
+        assertEquals(2, stats.count());
+        assertEquals(20.0, stats.average());
+        assertEquals(10.0, stats.min());
+        assertEquals(30.0, stats.max());
+        assertEquals(2, queryService.allStats().size());
+        assertTrue(queryService.stats("C").isEmpty());
+    }
+
+    @Test
+    void testReconcileRebuildsDriftedCategoryOnly() {
+        store.onFlushed(new DataFlushedEvent(List.of(record("A", 1), record("B", 2))));
+        when(dataRepository.findCategoryTotals()).thenReturn(List.of(totals("A", 2), totals("B", 100)));
+        when(dataRepository.streamValuesByCategory("B")).thenReturn(Stream.of(4.0, 6.0, 8.0));
+
+        // До сверки среднее берётся из БД
+        when(dataRepository.findAverageByCategory("A")).thenReturn(99.0);
+        assertEquals(99.0, queryService.average("A").getAsDouble());
+
+        store.reconcile();
+
+        assertTrue(store.isReconciled());
+        assertEquals(6.0, queryService.average("B").getAsDouble());
+        assertEquals(1.0, queryService.average("A").getAsDouble());
+        verify(dataRepository, never()).streamValuesByCategory("A");
+    }
+
+    @Test
+    void testDroppedPartitionsRebuildEveryCategory() {
+        store.onFlushed(new DataFlushedEvent(List.of(record("A", 1), record("A", 3), record("B", 2))));
+        when(dataRepository.findCategoryTotals()).thenReturn(List.of(totals("A", 1)));
+        when(dataRepository.streamValuesByCategory("A")).thenReturn(Stream.of(3.0));
+
+        store.onPartitionsDropped(new PartitionsDroppedEvent(List.of("parsed_data_p20240101")));
+
+        CategoryStats stats = queryService.stats("A").orElseThrow();
+        assertEquals(1, stats.count());
+        assertEquals(3.0, stats.min());
+        assertTrue(store.find("B").isEmpty());
+    }
+
+    private static DataModel record(String category, double value) {
+        DataModel data = new DataModel();
+        data.setCategory(category);
+        data.setValue(value);
+        return data;
+    }
+
+    private static CategoryTotals totals(String category, long count) {
+        return new CategoryTotals() {
+            public String getCategory() { return category; }
+            public long getCount() { return count; }
+            public double getSum() { return 0; }
+            public double getMin() { return 0; }
+            public double getMax() { return 0; }
+        };
+    }
+}
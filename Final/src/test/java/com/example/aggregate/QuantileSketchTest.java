@@ -0,0 +1,62 @@
+package com.example.aggregate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void testQuantilesWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1000;
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.01, 0.5, 0.95, 0.99}) {
+            double exact = values[(int) (q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01, "q=" + q);
+        }
+    }
+
+    @Test
+    void testMergeMatchesSingleSketch() {
+        QuantileSketch whole = new QuantileSketch(0.01);
+        QuantileSketch left = new QuantileSketch(0.01);
+        QuantileSketch right = new QuantileSketch(0.01);
+        for (int i = -500; i < 1500; i++) {
+            whole.add(i);
+            (i % 2 == 0 ? left : right).add(i);
+        }
+
+        left.merge(right);
+
+        assertEquals(whole.count(), left.count());
+        for (double q : new double[]{0, 0.1, 0.25, 0.5, 0.9, 1}) {
+            assertEquals(whole.quantile(q), left.quantile(q), 1e-9);
+        }
+        assertTrue(left.quantile(0) < -490);
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new QuantileSketch(0.05)));
+    }
+
+    @Test
+    void testBucketLimitCollapsesSmallestValues() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 64);
+        for (int exponent = -200; exponent <= 10; exponent++) {
+            sketch.add(Math.pow(10, exponent));
+        }
+
+        assertEquals(211, sketch.count());
+        // Старшие значения сохраняют точность, младшие слиты в нижний бакет
+        assertEquals(1e10, sketch.quantile(1), 1e10 * 0.01);
+        assertTrue(sketch.quantile(0) > 0);
+        assertTrue(Double.isNaN(new QuantileSketch(0.01).quantile(0.5)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BenchmarkComparatorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testFlagsOnlySignificantThroughputDrop() throws Exception {
+        Map<String, BenchmarkComparator.Result> baseline = BenchmarkComparator.parse(mapper.readTree("""
+                [
+                  {"benchmark": "com.example.benchmark.ParserBenchmark.parse", "mode": "thrpt",
+                   "params": {"strategy": "FOR_LOOP", "batchSize": "100"},
+                   "primaryMetric": {"score": 100.0, "scoreError": 2.0, "scoreUnit": "ops/s"}},
+                  {"benchmark": "com.example.benchmark.ParserBenchmark.parse", "mode": "thrpt",
+                   "params": {"strategy": "STREAM", "batchSize": "100"},
+                   "primaryMetric": {"score": 100.0, "scoreError": 30.0, "scoreUnit": "ops/s"}}
+                ]
+                """));
+        Map<String, BenchmarkComparator.Result> current = BenchmarkComparator.parse(mapper.readTree("""
+                [
+                  {"benchmark": "com.example.benchmark.ParserBenchmark.parse", "mode": "thrpt",
+                   "params": {"batchSize": "100", "strategy": "FOR_LOOP"},
+                   "primaryMetric": {"score": 80.0, "scoreError": 2.0, "scoreUnit": "ops/s"}},
+                  {"benchmark": "com.example.benchmark.ParserBenchmark.parse", "mode": "thrpt",
+                   "params": {"batchSize": "100", "strategy": "STREAM"},
+                   "primaryMetric": {"score": 80.0, "scoreError": "NaN", "scoreUnit": "ops/s"}}
+                ]
+                """));
+
+        List<BenchmarkComparator.Delta> deltas = BenchmarkComparator.compare(baseline, current);
+
+        assertEquals(2, deltas.size());
+        assertEquals(-20.0, deltas.get(0).changePercent(), 1e-9);
+        assertTrue(deltas.get(0).isRegression(5));
+        // Падение в пределах погрешности baseline - не регрессия
+        assertFalse(deltas.get(1).isRegression(5));
+    }
+
+    @Test
+    void testAverageTimeIncreaseIsRegression() throws Exception {
+        Map<String, BenchmarkComparator.Result> baseline = BenchmarkComparator.parse(mapper.readTree("""
+                [{"benchmark": "a.B.run", "mode": "avgt", "params": {},
+                  "primaryMetric": {"score": 10.0, "scoreError": 0.1, "scoreUnit": "ms/op"}}]
+                """));
+        Map<String, BenchmarkComparator.Result> current = BenchmarkComparator.parse(mapper.readTree("""
+                [{"benchmark": "a.B.run", "mode": "avgt", "params": {},
+                  "primaryMetric": {"score": 12.0, "scoreError": 0.1, "scoreUnit": "ms/op"}}]
+                """));
+
+        BenchmarkComparator.Delta delta = BenchmarkComparator.compare(baseline, current).get(0);
+
+        assertEquals(-20.0, delta.changePercent(), 1e-9);
+        assertTrue(delta.isRegression(5));
+    }
+}
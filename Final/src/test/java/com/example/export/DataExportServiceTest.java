@@ -0,0 +1,80 @@
+package com.example.export;
+
+import com.example.config.ExportProperties;
+import com.example.model.DataModel;
+import com.example.repository.DataRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;NON_KEYWORDS=VALUE",
+        "export.page-size=3"
+})
+@Import(DataExportService.class)
+class DataExportServiceTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ExportProperties.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private DataExportService exportService;
+
+    @Autowired
+    private DataRepository dataRepository;
+
+    @Test
+    void testKeysetPagesCoverEveryRowOnce() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<DataModel> rows = new ArrayList<>();
+        // Одинаковые timestamp на границах страниц проверяют второй компонент курсора
+        for (int i = 0; i < 10; i++) {
+            rows.add(record(base.plusSeconds(i / 4)));
+        }
+        rows.add(record(base.minusHours(1)));
+        dataRepository.saveAll(rows);
+
+        List<DataModel> exported = new ArrayList<>();
+        long count = exportService.exportSince(base, exported::add);
+
+        assertEquals(10, count);
+        assertEquals(10, exported.stream().map(DataModel::getId).distinct().count());
+        for (int i = 1; i < exported.size(); i++) {
+            DataModel previous = exported.get(i - 1);
+            DataModel current = exported.get(i);
+            int byTime = previous.getTimestamp().compareTo(current.getTimestamp());
+            assertTrue(byTime < 0 || (byTime == 0 && previous.getId() < current.getId()));
+        }
+    }
+
+    private static DataModel record(LocalDateTime timestamp) {
+        DataModel data = new DataModel();
+        data.setData("Sample data");
+        data.setValue(1.0);
+        data.setCategory("CATEGORY_0");
+        data.setTimestamp(timestamp);
+        return data;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.parser;
+
+import com.example.config.ParserProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBatchControllerTest {
+
+    private SimpleMeterRegistry registry;
+    private ParserProperties properties;
+    private Timer parseTimer;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private AdaptiveBatchController controller;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ParserProperties();
+        properties.getScheduling().setCooldownRuns(2);
+        parseTimer = Timer.builder(AdaptiveBatchController.PARSE_TIMER)
+                .publishPercentiles(0.99)
+                .register(registry);
+        Gauge.builder(AdaptiveBatchController.POOL_ACTIVE, activeConnections, AtomicInteger::get).register(registry);
+        Gauge.builder(AdaptiveBatchController.POOL_MAX, () -> 20).register(registry);
+        Gauge.builder(AdaptiveBatchController.POOL_PENDING, () -> 0).register(registry);
+
+        controller = new AdaptiveBatchController(registry, properties);
+        controller.init();
+    }
+
+    @Test
+    void testGrowsAdditivelyWhileHealthy() {
+        parseTimer.record(Duration.ofMillis(300));
+
+        controller.adjust();
+        controller.adjust();
+
+        assertEquals(200, controller.batchSize());
+        assertEquals(Duration.ofMillis(4500), controller.interval());
+        assertEquals(200.0, registry.get("parser.adaptive.batch.size").gauge().value());
+    }
+
+    @Test
+    void testBacksOffMultiplicativelyOnSaturatedPool() {
+        activeConnections.set(18);
+
+        controller.adjust();
+
+        assertEquals(50, controller.batchSize());
+        assertEquals(Duration.ofSeconds(10), controller.interval());
+        assertEquals(1.0, registry.get("parser.adaptive.decisions").tag("decision", "decrease").counter().count());
+    }
+
+    @Test
+    void testSlowBatchesBackOffOnceThenCoolDown() {
+        parseTimer.record(Duration.ofSeconds(5));
+
+        controller.adjust();
+        assertEquals(50, controller.batchSize());
+
+        // p99 в окне таймера всё ещё высокий, но до конца паузы батч не режется повторно
+        controller.adjust();
+        controller.adjust();
+        assertEquals(150, controller.batchSize());
+
+        controller.adjust();
+        assertEquals(75, controller.batchSize());
+    }
+
+    @Test
+    void testFixedScheduleWhenNotAdaptive() {
+        properties.getScheduling().setAdaptive(false);
+        activeConnections.set(20);
+
+        controller.adjust();
+
+        assertEquals(100, controller.batchSize());
+        assertEquals(Duration.ofSeconds(5), controller.interval());
+    }
+}
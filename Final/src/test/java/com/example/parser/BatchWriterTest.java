@@ -0,0 +1,199 @@
+package com.example.parser;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.repository.DataBatchRepository;
+import com.example.repository.WriteRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchWriterTest {
+
+    private final List<List<DataModel>> flushed = new CopyOnWriteArrayList<>();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BatchWriter writer;
+
+    private BatchWriter createWriter(DataBatchRepository repository, int batchSize, Duration maxAge) {
+        return createWriter(repository, batchSize, maxAge, 0);
+    }
+
+    private BatchWriter createWriter(DataBatchRepository repository, int batchSize, Duration maxAge, int copyThreshold) {
+        ParserProperties properties = new ParserProperties();
+        properties.getPersistence().setBatchSize(batchSize);
+        properties.getPersistence().setCopyThreshold(copyThreshold);
+        properties.getPersistence().setMaxBatchAge(maxAge);
+        properties.getPersistence().setWriterThreads(1);
+        properties.getPersistence().setFlushRetryBackoff(Duration.ofMillis(1));
+        writer = new BatchWriter(repository, registry, events::add, properties);
+        writer.start();
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void testFlushOnBatchSize() throws Exception {
+        createWriter(batch -> flushed.add(new ArrayList<>(batch)), 10, Duration.ofSeconds(30));
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(writer.submit(new DataModel()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, flushed.size());
+        assertEquals(10, flushed.get(0).size());
+        assertEquals(20.0, registry.get("db.inserts").counter().count());
+        assertEquals(2, registry.get("db.flush.size").summary().count());
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    void testBacklogIsFlushedAsOneCopySizedBatch() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        createWriter(batch -> {
+            flushing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flushed.add(new ArrayList<>(batch));
+        }, 5, Duration.ofMillis(10), 20);
+
+        // Первый батч держит writer, пока в очереди копится хвост
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(writer.submit(new DataModel()));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 25; i++) {
+            futures.add(writer.submit(new DataModel()));
+        }
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(1, 20, 5), flushed.stream().map(List::size).toList());
+    }
+
+    @Test
+    void testBatchSlotsConvertedAtFlush() throws Exception {
+        createWriter(batch -> flushed.add(new ArrayList<>(batch)), 2, Duration.ofSeconds(30));
+        DataBatch columns = new DataBatch(2);
+        columns.set(0, 1.5, 1_000, 10, 3, 7);
+        columns.set(1, 2.5, 2_000, 20, 4, 8);
+
+        CompletableFuture.allOf(writer.submit(columns, 1), writer.submit(columns, 0)).get(5, TimeUnit.SECONDS);
+
+        List<DataModel> rows = flushed.get(0);
+        assertEquals("Sample data 8", rows.get(0).getData());
+        assertEquals("CATEGORY_4", rows.get(0).getCategory());
+        assertEquals(1.5, rows.get(1).getValue());
+    }
+
+    @Test
+    void testFlushOnBatchAge() throws Exception {
+        createWriter(batch -> flushed.add(new ArrayList<>(batch)), 50, Duration.ofMillis(50));
+
+        writer.submit(new DataModel()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, flushed.size());
+        assertEquals(1, flushed.get(0).size());
+    }
+
+    @Test
+    void testFailedFlushCompletesExceptionally() {
+        createWriter(batch -> {
+            throw new IllegalStateException("db down");
+        }, 5, Duration.ofMillis(10));
+
+        CompletableFuture<Void> future = writer.submit(new DataModel());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1.0, registry.get("db.flush.failures").counter().count());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testRejectionBeforeWriteIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        createWriter(batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new WriteRejectedException("limit reached");
+            }
+            if (attempts.get() == 2) {
+                throw new CannotCreateTransactionException("pool timeout");
+            }
+            flushed.add(new ArrayList<>(batch));
+        }, 5, Duration.ofMillis(10));
+
+        writer.submit(new DataModel()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, flushed.size());
+        assertEquals(2.0, registry.get("db.flush.retries").counter().count());
+        assertEquals(0.0, registry.get("db.flush.failures").counter().count());
+    }
+
+    @Test
+    void testRetriesAreBounded() {
+        AtomicInteger attempts = new AtomicInteger();
+        createWriter(batch -> {
+            attempts.incrementAndGet();
+            throw new WriteRejectedException("limit reached");
+        }, 5, Duration.ofMillis(10));
+
+        CompletableFuture<Void> future = writer.submit(new DataModel());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(WriteRejectedException.class, e.getCause());
+        assertEquals(4, attempts.get());
+        assertEquals(1.0, registry.get("db.flush.failures").counter().count());
+    }
+
+    @Test
+    void testFailureDuringInsertIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        createWriter(batch -> {
+            attempts.incrementAndGet();
+            batch.get(0).setId(1L);
+            throw new TransientDataAccessResourceException("deadlock detected");
+        }, 5, Duration.ofMillis(10));
+
+        CompletableFuture<Void> future = writer.submit(new DataModel());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransientDataAccessResourceException.class, e.getCause());
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, registry.get("db.flush.retries").counter().count());
+    }
+
+    @Test
+    void testSubmitAfterStopIsRejected() {
+        createWriter(flushed::add, 5, Duration.ofMillis(10));
+        writer.stop();
+
+        assertTrue(writer.submit(new DataModel()).isCompletedExceptionally());
+        writer = null;
+    }
+}
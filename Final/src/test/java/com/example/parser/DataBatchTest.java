@@ -0,0 +1,55 @@
+package com.example.parser;
+
+import com.example.model.DataModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataBatchTest {
+
+    @Test
+    void testSetAndConvert() {
+        DataBatch batch = new DataBatch(4);
+        long now = System.currentTimeMillis();
+
+        batch.set(2, 42.5, now, 123L, 7, now);
+        DataModel data = batch.toEntity(2);
+
+        assertEquals(4, batch.size());
+        assertEquals("Sample data " + now, data.getData());
+        assertEquals(42.5, data.getValue());
+        assertEquals("CATEGORY_7", data.getCategory());
+        assertEquals(123L, data.getProcessingTime());
+        assertEquals(now, data.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void testPayloadEdgeValues() {
+        DataBatch batch = new DataBatch(2);
+        batch.set(0, 0, 0, 0, 0, 0);
+        batch.set(1, 0, 0, 0, 0, Long.MAX_VALUE);
+
+        assertEquals("Sample data 0", batch.payload(0));
+        assertEquals("Sample data " + Long.MAX_VALUE, batch.payload(1));
+        assertThrows(IllegalArgumentException.class, () -> batch.set(0, 0, 0, 0, 0, -1));
+    }
+
+    @Test
+    void testSlotIsOverwritten() {
+        DataBatch batch = new DataBatch(1);
+        batch.set(0, 1, 1, 1, 1, 123456);
+        batch.set(0, 2, 2, 2, 2, 2);
+
+        assertEquals(2.0, batch.value(0));
+        assertEquals("Sample data 2", batch.payload(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.set(1, 2, 2, 2, 2, 2));
+    }
+
+    @Test
+    void testCategoryDictionary() {
+        assertSame(CategoryDictionary.name(3), CategoryDictionary.name(CategoryDictionary.id("CATEGORY_3")));
+        assertThrows(IllegalArgumentException.class, () -> CategoryDictionary.id("UNKNOWN"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.parser;
+
+import com.example.config.ParserProperties;
+import com.example.parser.engine.ParseEngine;
+import com.example.stage.PipelineStage;
+import com.example.stage.StageRecorder;
+import com.example.tracing.RecordTracer;
+import com.example.tracing.TracingMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ParserServiceForkJoinTest {
+
+    private static final int PARALLELISM = 1;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    private ParseEngine parseEngine;
+    private ParserService parserService;
+
+    @BeforeEach
+    void setUp() {
+        ParserProperties properties = new ParserProperties();
+        properties.setMaxSimulatedDelay(Duration.ofMillis(50));
+        properties.getForkJoin().setParallelism(PARALLELISM);
+
+        Tracer tracer = OpenTelemetry.noop().getTracer("test");
+        // Спан парсинга открывается до имитации блокировки, стадия PARSE пишется после неё
+        RecordTracer recordTracer = new RecordTracer(tracer, TracingMode.FULL, registry) {
+            @Override
+            public Span startParseSpan() {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                return super.startParseSpan();
+            }
+        };
+        StageRecorder stageRecorder = new StageRecorder(registry) {
+            @Override
+            public void record(PipelineStage stage, long nanos) {
+                if (stage == PipelineStage.PARSE) {
+                    active.decrementAndGet();
+                    threads.add(Thread.currentThread().getName());
+                }
+                super.record(stage, nanos);
+            }
+        };
+
+        parseEngine = ParseEngine.create(properties.getEngine(), registry);
+        parserService = new ParserService(mock(RecordWriter.class), registry, tracer, parseEngine, properties,
+                recordTracer, stageRecorder);
+        parserService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        parserService.cleanup();
+        parseEngine.close();
+    }
+
+    @Test
+    void testBlockedWorkersAreCompensated() {
+        DataBatch batch = parserService.parseWithForkJoin(40);
+
+        assertEquals(40, batch.size());
+        // Без ManagedBlocker одновременно спали бы не больше PARALLELISM записей
+        assertTrue(peak.get() > PARALLELISM, "peak blocked records " + peak.get());
+        assertTrue(threads.size() > PARALLELISM, "worker threads " + threads);
+    }
+
+    @Test
+    void testCommonPoolIsNotUsed() {
+        parserService.parseWithForkJoin(40);
+
+        assertFalse(threads.isEmpty());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("parse-fj-")), "threads " + threads);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.parser;
+
+import com.example.model.DataModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordPublisherTest {
+
+    private final AtomicInteger produced = new AtomicInteger();
+
+    private RecordPublisher<DataModel> publisher(long count) {
+        return new RecordPublisher<>(count, () -> {
+            produced.incrementAndGet();
+            return new DataModel();
+        }, Runnable::run);
+    }
+
+    @Test
+    void testProducesOnlyRequestedRecords() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(100).subscribe(subscriber);
+
+        subscriber.subscription.request(10);
+        assertEquals(10, produced.get());
+        assertEquals(10, subscriber.items.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(90);
+        assertEquals(100, subscriber.items.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testEmptyPublisherCompletesImmediately() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(0).subscribe(subscriber);
+
+        assertTrue(subscriber.completed);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    void testCancelStopsProduction() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(100).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(50);
+
+        assertEquals(5, produced.get());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void testSourceErrorIsSignalled() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new RecordPublisher<DataModel>(10, () -> {
+            throw new IllegalStateException("broken");
+        }, Runnable::run).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        assertInstanceOf(IllegalStateException.class, subscriber.error);
+    }
+
+    @Test
+    void testAsyncExecutorDeliversAll() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        List<DataModel> items = new CopyOnWriteArrayList<>();
+        new RecordPublisher<>(1000, DataModel::new, Thread::startVirtualThread).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(DataModel item) {
+                items.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1000, items.size());
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<DataModel> {
+        private final List<DataModel> items = new CopyOnWriteArrayList<>();
+        private Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(DataModel item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
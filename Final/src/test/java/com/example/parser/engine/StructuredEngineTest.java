@@ -0,0 +1,77 @@
+package com.example.parser.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuredEngineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testAllRecordsComplete() {
+        StructuredEngine engine = new StructuredEngine(100, Duration.ofSeconds(5), registry);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        try (ParseBatch batch = engine.openBatch(50)) {
+            for (int i = 0; i < 50; i++) {
+                final int n = i;
+                futures.add(batch.submit(() -> n * 2));
+            }
+            batch.join();
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i * 2, futures.get(i).join());
+        }
+        assertEquals(0.0, registry.get("parser.engine.inflight").gauge().value());
+    }
+
+    @Test
+    void testFailureCancelsSiblings() {
+        StructuredEngine engine = new StructuredEngine(100, Duration.ofSeconds(30), registry);
+        CompletableFuture<Object> slow;
+        CompletableFuture<Object> failing;
+
+        long start = System.nanoTime();
+        try (ParseBatch batch = engine.openBatch(2)) {
+            slow = batch.submit(() -> {
+                Thread.sleep(10_000);
+                return "slow";
+            });
+            failing = batch.submit(() -> {
+                throw new IllegalStateException("bad record");
+            });
+            batch.join();
+        }
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 5);
+        CompletionException failure = assertThrows(CompletionException.class, failing::join);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertTrue(slow.isCompletedExceptionally());
+        assertEquals(1.0, registry.get("parser.engine.cancelled.batches").counter().count());
+    }
+
+    @Test
+    void testDeadlineCancelsRemainingRecords() {
+        StructuredEngine engine = new StructuredEngine(100, Duration.ofMillis(200), registry);
+        CompletableFuture<Object> slow;
+
+        try (ParseBatch batch = engine.openBatch(1)) {
+            slow = batch.submit(() -> {
+                Thread.sleep(10_000);
+                return "slow";
+            });
+            batch.join();
+        }
+
+        assertTrue(slow.isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.parser.journal;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.parser.DataFlushedEvent;
+import com.example.repository.DataBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalRecordWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private ParserProperties properties;
+    private final List<DataModel> saved = new CopyOnWriteArrayList<>();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ParserProperties();
+        ParserProperties.Journal journal = properties.getPersistence().getJournal();
+        journal.setDirectory(directory.toString());
+        journal.setDrainInterval(Duration.ofMillis(10));
+    }
+
+    @Test
+    void testDrainsSubmittedRecordsToRepository() throws Exception {
+        JournalRecordWriter writer = writer(saved::addAll);
+        writer.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(writer.submit(record(i)).isDone());
+            }
+            waitFor(() -> saved.size() == 100);
+        } finally {
+            writer.stop();
+        }
+
+        DataModel first = saved.get(0);
+        assertEquals("data-0", first.getData());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789), first.getTimestamp());
+        assertNull(first.getProcessingTime());
+        assertEquals(7L, saved.get(1).getProcessingTime());
+        assertTrue(events.stream().allMatch(DataFlushedEvent.class::isInstance));
+    }
+
+    @Test
+    void testReplaysJournalAfterDatabaseOutage() throws Exception {
+        JournalRecordWriter unavailable = writer(batch -> {
+            throw new IllegalStateException("database is down");
+        });
+        unavailable.start();
+        for (int i = 0; i < 10; i++) {
+            unavailable.submit(record(i));
+        }
+        properties.getPersistence().getJournal().setShutdownDrainTimeout(Duration.ZERO);
+        unavailable.stop();
+        assertTrue(saved.isEmpty());
+
+        JournalRecordWriter restarted = writer(saved::addAll);
+        restarted.start();
+        try {
+            waitFor(() -> saved.size() == 10);
+        } finally {
+            restarted.stop();
+        }
+        assertEquals("data-9", saved.get(9).getData());
+    }
+
+    private JournalRecordWriter writer(DataBatchRepository repository) {
+        return new JournalRecordWriter(repository, new SimpleMeterRegistry(), events::add, properties);
+    }
+
+    private static DataModel record(int i) {
+        DataModel data = new DataModel();
+        data.setData("data-" + i);
+        data.setValue(i * 1.5);
+        data.setCategory("CATEGORY_" + (i % 3));
+        data.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789));
+        data.setProcessingTime(i % 2 == 0 ? null : 7L);
+        return data;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
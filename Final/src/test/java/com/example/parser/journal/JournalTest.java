@@ -0,0 +1,127 @@
+package com.example.parser.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndReadInOrder() throws Exception {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE, 4)) {
+            journal.append(bytes("first"));
+            journal.append(bytes("second"));
+
+            List<byte[]> out = new ArrayList<>();
+            long next = journal.read(0, 10, out);
+
+            assertEquals(List.of("first", "second"), strings(out));
+            assertEquals(journal.writeOffset(), next);
+        }
+    }
+
+    @Test
+    void testRollsSegmentsAndDeletesDrainedOnes() throws Exception {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE, 4)) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(bytes("record-" + i));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            List<byte[]> out = new ArrayList<>();
+            long next = journal.read(0, 100, out);
+            journal.commit(next);
+
+            assertEquals(20, out.size());
+            assertEquals("record-19", new String(out.get(19), StandardCharsets.UTF_8));
+            assertEquals(1, journal.segmentCount());
+            assertEquals(0, journal.backlogBytes());
+            assertEquals(1, segmentFiles());
+        }
+    }
+
+    @Test
+    void testReplaysFromCheckpointAfterReopen() throws Exception {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE, 4)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(bytes("record-" + i));
+            }
+            List<byte[]> out = new ArrayList<>();
+            journal.commit(journal.read(0, 4, out));
+        }
+
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE, 4)) {
+            List<byte[]> out = new ArrayList<>();
+            journal.read(journal.checkpoint(), 100, out);
+
+            assertEquals(6, out.size());
+            assertEquals("record-4", new String(out.get(0), StandardCharsets.UTF_8));
+
+            // Запись после рестарта продолжается за последней целой записью
+            journal.append(bytes("after-restart"));
+            out.clear();
+            journal.read(journal.checkpoint(), 100, out);
+            assertEquals("after-restart", new String(out.get(6), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testTruncatesTornRecordOnOpen() throws Exception {
+        long end;
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE, 4)) {
+            journal.append(bytes("complete"));
+            end = journal.writeOffset();
+        }
+
+        // Заголовок уже записан, а payload не совпадает с CRC - запись оборвалась
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(Journal.HEADER + 4).putInt(4).putInt(12345).put(bytes("torn"));
+            channel.write(torn.flip(), end);
+        }
+
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE, 4)) {
+            assertEquals(end, journal.writeOffset());
+
+            List<byte[]> out = new ArrayList<>();
+            journal.read(0, 10, out);
+            assertEquals(List.of("complete"), strings(out));
+        }
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> payloads) {
+        return payloads.stream().map(payload -> new String(payload, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.profiling;
+
+import com.example.config.ProfilingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private JfrRecordingService service;
+
+    @BeforeEach
+    void setUp() {
+        ProfilingProperties properties = new ProfilingProperties();
+        properties.setDirectory(directory.toString());
+        service = new JfrRecordingService(properties);
+    }
+
+    @Test
+    void testSummarizesParserEventsAndSamples() throws Exception {
+        service.start("profile", Duration.ofSeconds(30));
+        assertThrows(IllegalStateException.class, () -> service.start(null, null));
+
+        for (int i = 0; i < 3; i++) {
+            ParseBatchEvent batch = new ParseBatchEvent();
+            batch.begin();
+            for (int j = 0; j < 10; j++) {
+                ParseRecordEvent record = new ParseRecordEvent();
+                record.begin();
+                Thread.sleep(1);
+                record.commit();
+            }
+            DbFlushEvent flush = new DbFlushEvent();
+            flush.begin();
+            flush.rows = 10;
+            flush.path = "jpa";
+            flush.commit();
+            batch.batchSize = 10;
+            batch.commit();
+        }
+        burnCpu();
+
+        JfrSummary summary = service.stop();
+
+        Map<String, JfrSummary.EventStats> events = summary.parserEvents();
+        assertEquals(3, events.get("com.example.ParseBatch").count());
+        assertEquals(30, events.get("com.example.ParseRecord").count());
+        assertEquals(3, events.get("com.example.DbFlush").count());
+        assertTrue(events.get("com.example.ParseRecord").avgMillis() >= 1);
+        assertFalse(summary.hotMethods().isEmpty());
+        assertTrue(summary.hotMethods().size() <= 10);
+        assertEquals("NONE", service.status().get("state"));
+        assertSame(summary, service.status().get("lastSummary"));
+    }
+
+    @Test
+    void testRejectsUnknownProfileAndTooLongDuration() {
+        assertThrows(IllegalArgumentException.class, () -> service.start("missing", null));
+        assertThrows(IllegalArgumentException.class, () -> service.start("default", Duration.ofHours(1)));
+        assertThrows(IllegalStateException.class, () -> service.stop());
+    }
+
+    // Даём ExecutionSample (раз в 10-20 мс) что сэмплировать
+    private static void burnCpu() {
+        long deadline = System.nanoTime() + Duration.ofMillis(500).toNanos();
+        List<String> sink = new ArrayList<>();
+        while (System.nanoTime() < deadline) {
+            sink.add(Long.toString(System.nanoTime()));
+            if (sink.size() > 10_000) {
+                sink.clear();
+            }
+        }
+    }
+}
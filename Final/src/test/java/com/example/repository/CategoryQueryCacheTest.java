@@ -0,0 +1,71 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.parser.DataFlushedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryQueryCacheTest {
+
+    private DataRepository dataRepository;
+    private MeterRegistry meterRegistry;
+    private CategoryQueryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        dataRepository = mock(DataRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CategoryQueryCache(dataRepository, meterRegistry, new ParserProperties());
+    }
+
+    @Test
+    void testRepeatedQueriesHitTheCache() {
+        when(dataRepository.findAverageByCategory("A")).thenReturn(10.0);
+        when(dataRepository.findAverageByCategory("B")).thenReturn(null);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(10.0, cache.average("A").getAsDouble());
+            // Пустая категория тоже кэшируется
+            assertTrue(cache.average("B").isEmpty());
+        }
+
+        verify(dataRepository, times(1)).findAverageByCategory("A");
+        verify(dataRepository, times(1)).findAverageByCategory("B");
+        assertEquals(4, meterRegistry.get("cache.gets").tag("cache", "category.average").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "category.average").tag("result", "miss")
+                .functionCounter().count());
+        assertTrue(meterRegistry.get("cache.load.duration").tag("cache", "category.average").timeGauge().value() >= 0);
+    }
+
+    @Test
+    void testFlushInvalidatesOnlyFlushedCategories() {
+        when(dataRepository.findAverageByCategory("A")).thenReturn(10.0, 20.0);
+        when(dataRepository.findAverageByCategory("B")).thenReturn(5.0);
+        cache.average("A");
+        cache.average("B");
+
+        cache.onFlushed(new DataFlushedEvent(List.of(record("A"), record("A"))));
+
+        assertEquals(20.0, cache.average("A").getAsDouble());
+        assertEquals(5.0, cache.average("B").getAsDouble());
+        verify(dataRepository, times(2)).findAverageByCategory("A");
+        verify(dataRepository, times(1)).findAverageByCategory("B");
+        assertEquals(1, meterRegistry.get("category.cache.invalidations").counter().count());
+    }
+
+    private static DataModel record(String category) {
+        DataModel data = new DataModel();
+        data.setCategory(category);
+        data.setValue(1.0);
+        return data;
+    }
+}
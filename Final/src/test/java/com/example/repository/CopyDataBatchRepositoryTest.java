@@ -0,0 +1,113 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * COPY против настоящего PostgreSQL и сравнение пропускной способности с JPA-путём.
+ * Без Docker тест пропускается.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({JpaDataBatchRepository.class, CopyDataBatchRepository.class})
+class CopyDataBatchRepositoryTest {
+
+    private static final int ROWS = 20_000;
+    private static final int BATCH = 2_000;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ParserProperties.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CopyDataBatchRepository copyRepository;
+
+    @Autowired
+    private JpaDataBatchRepository jpaRepository;
+
+    @Autowired
+    private DataRepository dataRepository;
+
+    @Test
+    void testCopyInterleavesWithJpaIds() {
+        assertTrue(copyRepository.isSupported());
+
+        long before = dataRepository.countAll();
+        List<DataModel> first = RoutingDataBatchRepositoryTest.records(30);
+        List<DataModel> copied = RoutingDataBatchRepositoryTest.records(120);
+        List<DataModel> last = RoutingDataBatchRepositoryTest.records(30);
+        jpaRepository.saveBatch(first);
+        copyRepository.saveBatch(copied);
+        jpaRepository.saveBatch(last);
+
+        Set<Long> ids = new HashSet<>();
+        for (List<DataModel> batch : List.of(first, copied, last)) {
+            batch.forEach(data -> ids.add(data.getId()));
+        }
+        assertEquals(180, ids.size());
+        assertEquals(before + 180, dataRepository.countAll());
+    }
+
+    @Test
+    void testCopyThroughputAgainstJpa() {
+        long before = dataRepository.countAll();
+        // Прогрев обоих путей
+        jpaRepository.saveBatch(RoutingDataBatchRepositoryTest.records(BATCH));
+        copyRepository.saveBatch(RoutingDataBatchRepositoryTest.records(BATCH));
+
+        double jpaRate = rowsPerSecond(jpaRepository);
+        double copyRate = rowsPerSecond(copyRepository);
+
+        System.out.printf("JPA: %.0f rows/s, COPY: %.0f rows/s (x%.1f)%n", jpaRate, copyRate, copyRate / jpaRate);
+        assertEquals(before + 2 * (ROWS + BATCH), dataRepository.countAll());
+    }
+
+    private double rowsPerSecond(DataBatchRepository repository) {
+        long start = System.nanoTime();
+        for (int written = 0; written < ROWS; written += BATCH) {
+            repository.saveBatch(RoutingDataBatchRepositoryTest.records(BATCH));
+        }
+        return ROWS / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.repository;
+
+import com.example.model.DataModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV-строки протокола COPY без базы данных; загрузку в PostgreSQL проверяет CopyDataBatchRepositoryTest
+ */
+class CopyRowEncodingTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+    @Test
+    void testQuotesDelimitersAndLineBreaksInsideText() {
+        DataModel data = record("a,b \"c\"\nd\\e", "CATEGORY_1");
+
+        assertEquals("7,\"a,b \"\"c\"\"\nd\\e\",1.5,\"CATEGORY_1\",2024-01-02T03:04:05,42,0\n", encode(data));
+    }
+
+    @Test
+    void testNullsAreUnquotedEmptyFields() {
+        DataModel data = record(null, "");
+        data.setProcessingTime(null);
+        data.setVersion(null);
+        data.setTimestamp(null);
+
+        // Пустая строка остаётся "", NULL - пустое поле без кавычек
+        assertEquals("7,,1.5,\"\",,,\n", encode(data));
+    }
+
+    @Test
+    void testTimestampPrecision() {
+        DataModel data = record("x", "C");
+
+        data.setTimestamp(LocalDateTime.of(2024, 1, 2, 3, 4));
+        assertTrue(encode(data).contains(",2024-01-02T03:04,"));
+
+        data.setTimestamp(TIMESTAMP.withNano(123_456_789));
+        assertTrue(encode(data).contains(",2024-01-02T03:04:05.123456789,"));
+    }
+
+    @Test
+    void testSpecialDoubleValues() {
+        DataModel data = record("x", "C");
+
+        data.setValue(Double.NaN);
+        assertTrue(encode(data).startsWith("7,\"x\",NaN,"));
+
+        data.setValue(Double.NEGATIVE_INFINITY);
+        assertTrue(encode(data).startsWith("7,\"x\",-Infinity,"));
+
+        data.setValue(1e-10);
+        assertTrue(encode(data).startsWith("7,\"x\",1.0E-10,"));
+    }
+
+    private static String encode(DataModel data) {
+        StringBuilder row = new StringBuilder();
+        CopyDataBatchRepository.appendRow(row, data);
+        return row.toString();
+    }
+
+    private static DataModel record(String text, String category) {
+        DataModel data = new DataModel();
+        data.setId(7L);
+        data.setData(text);
+        data.setValue(1.5);
+        data.setCategory(category);
+        data.setTimestamp(TIMESTAMP);
+        data.setProcessingTime(42L);
+        data.setVersion(0L);
+        return data;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DDL партиционирования против настоящего PostgreSQL: H2 не поддерживает PARTITION BY.
+ * Без Docker тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionManagerPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+    private ParserProperties properties;
+    private PartitionManager manager;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(POSTGRES.getJdbcUrl());
+        dataSource.setUser(POSTGRES.getUsername());
+        dataSource.setPassword(POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS parsed_data CASCADE");
+
+        properties = new ParserProperties();
+        ParserProperties.Partitioning partitioning = properties.getPersistence().getPartitioning();
+        partitioning.setInterval(PartitionInterval.DAILY);
+        partitioning.setPremake(1);
+        partitioning.setRetention(Duration.ofDays(7));
+        manager = new PartitionManager(dataSource, properties, registry, events::add);
+    }
+
+    @Test
+    void testBootstrapRoutesRowsIntoRangePartitions() {
+        manager.bootstrap();
+
+        assertTrue(manager.isActive());
+        assertEquals(2.0, registry.get("partitions.count").gauge().value());
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(partitionName(now), partitionOf(insert(now)));
+    }
+
+    @Test
+    void testRowsInDefaultMoveIntoNewPartition() {
+        manager.bootstrap();
+        LocalDateTime ahead = LocalDateTime.now().plusDays(5);
+        long id = insert(ahead);
+        assertEquals("parsed_data_default", partitionOf(id));
+
+        properties.getPersistence().getPartitioning().setPremake(6);
+        manager.maintain();
+
+        assertEquals(partitionName(ahead), partitionOf(id));
+        assertEquals(0, rowsIn("parsed_data_default"));
+        assertEquals(0.0, registry.get("partitions.failures").counter().count());
+    }
+
+    @Test
+    void testExpiredDefaultRowsAreDeletedWithPartitions() {
+        manager.bootstrap();
+        insert(LocalDateTime.now().minusDays(30));
+        long recent = insert(LocalDateTime.now());
+
+        manager.maintain();
+
+        assertEquals(List.of(recent), jdbcTemplate.queryForList("SELECT id FROM parsed_data", Long.class));
+        assertEquals(1.0, registry.get("partitions.default.expired").counter().count());
+        assertEquals(List.of(new PartitionsDroppedEvent(List.of("parsed_data_default"))), events);
+    }
+
+    private long insert(LocalDateTime timestamp) {
+        long id = ids.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO parsed_data (id, data, value, category, timestamp) VALUES (?, 'x', 1.0, 'A', ?)",
+                id, timestamp);
+        return id;
+    }
+
+    private String partitionOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM parsed_data WHERE id = ?", String.class, id);
+    }
+
+    private int rowsIn(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private static String partitionName(LocalDateTime timestamp) {
+        return PartitionInterval.DAILY.name(PartitionManager.TABLE, PartitionInterval.DAILY.floor(timestamp));
+    }
+}
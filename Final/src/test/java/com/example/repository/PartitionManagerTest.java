@@ -0,0 +1,59 @@
+package com.example.repository;
+
+import com.example.repository.PartitionManager.Partition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionManagerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 31, 15, 20);
+
+    @Test
+    void testCreatesCurrentAndPremadePartitionsThatDoNotExistYet() {
+        List<Partition> existing = List.of(daily(2024, 1, 31));
+
+        List<Partition> missing = PartitionManager.missing(NOW, existing, PartitionInterval.DAILY, 2);
+
+        assertEquals(List.of(daily(2024, 2, 1), daily(2024, 2, 2)), missing);
+        assertEquals("parsed_data_p20240201", missing.get(0).name());
+    }
+
+    @Test
+    void testHourlyPartitionsSkipRangesCoveredByDailyOnes() {
+        // Интервал сменили с DAILY на HOURLY: текущие сутки уже покрыты
+        List<Partition> missing = PartitionManager.missing(NOW.withHour(22), List.of(daily(2024, 1, 31)),
+                PartitionInterval.HOURLY, 3);
+
+        assertEquals(2, missing.size());
+        assertEquals("parsed_data_p20240201_00", missing.get(0).name());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 2, 0), missing.get(1).to());
+    }
+
+    @Test
+    void testExpiresOnlyPartitionsEntirelyOlderThanRetention() {
+        List<Partition> existing = List.of(daily(2024, 1, 28), daily(2024, 1, 29), daily(2024, 1, 30));
+
+        assertEquals(List.of(daily(2024, 1, 28)), PartitionManager.expired(NOW, existing, Duration.ofDays(2)));
+        assertTrue(PartitionManager.expired(NOW, existing, Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    void testParsesRangeBounds() {
+        Partition partition = PartitionManager.parse("parsed_data_p20240131",
+                "FOR VALUES FROM ('2024-01-31 00:00:00') TO ('2024-02-01 00:00:00')");
+
+        assertEquals(daily(2024, 1, 31), partition);
+        assertNull(PartitionManager.parse("parsed_data_default", "DEFAULT"));
+        assertNull(PartitionManager.parse("legacy", "FOR VALUES FROM (MINVALUE) TO ('2024-01-01 00:00:00')"));
+    }
+
+    private static Partition daily(int year, int month, int day) {
+        LocalDateTime from = LocalDateTime.of(year, month, day, 0, 0);
+        return new Partition(PartitionInterval.DAILY.name("parsed_data", from), from, from.plusDays(1));
+    }
+}
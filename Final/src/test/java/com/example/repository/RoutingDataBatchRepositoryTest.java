@@ -0,0 +1,99 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.example.model.DataModel;
+import com.example.stage.StageRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * На H2 COPY недоступен: батчи выше порога должны уйти в JPA.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;NON_KEYWORDS=VALUE",
+        "parser.persistence.copy-threshold=10"
+})
+@Import({JpaDataBatchRepository.class, CopyDataBatchRepository.class, WriteConcurrencyLimiter.class,
+        StageRecorder.class, RoutingDataBatchRepository.class})
+class RoutingDataBatchRepositoryTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ParserProperties.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private RoutingDataBatchRepository repository;
+
+    @Autowired
+    private CopyDataBatchRepository copyRepository;
+
+    @Autowired
+    private DataRepository dataRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testFallsBackToJpaWithoutPostgres() {
+        assertFalse(copyRepository.isSupported());
+
+        repository.saveBatch(records(25));
+        repository.saveBatch(records(5));
+
+        assertEquals(30, dataRepository.count());
+        assertEquals(2.0, meterRegistry.get("db.batches").tag("path", "jpa").counter().count());
+        assertEquals(0.0, meterRegistry.get("db.batches").tag("path", "copy").counter().count());
+    }
+
+    @Test
+    void testCsvRowEscaping() {
+        DataModel data = new DataModel();
+        data.setId(7L);
+        data.setData("say \"hi\", then");
+        data.setValue(1.5);
+        data.setCategory("CATEGORY_1");
+        data.setTimestamp(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        data.setVersion(0L);
+
+        StringBuilder row = new StringBuilder();
+        CopyDataBatchRepository.appendRow(row, data);
+
+        assertEquals("7,\"say \"\"hi\"\", then\",1.5,\"CATEGORY_1\",2024-01-02T03:04:05,,0\n", row.toString());
+    }
+
+    static List<DataModel> records(int count) {
+        List<DataModel> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DataModel data = new DataModel();
+            data.setData("Sample data " + i);
+            data.setValue(i * 1.5);
+            data.setCategory("CATEGORY_" + (i % 10));
+            data.setTimestamp(LocalDateTime.now());
+            data.setProcessingTime(System.nanoTime());
+            batch.add(data);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.repository;
+
+import com.example.config.ParserProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry registry;
+    private ParserProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ParserProperties();
+        ParserProperties.Limiter limiter = properties.getPersistence().getLimiter();
+        limiter.setInitialLimit(4);
+        limiter.setMaxLimit(16);
+        limiter.setAcquireTimeout(Duration.ofMillis(50));
+    }
+
+    @Test
+    void testGrowsWhileLatencyIsStableAndSaturated() {
+        WriteConcurrencyLimiter limiter = limiter();
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample("jpa", 1_000, limiter.limit(), true);
+        }
+
+        assertEquals(16, limiter.limit());
+        assertEquals(16.0, registry.get("db.limiter.limit").gauge().value());
+    }
+
+    @Test
+    void testDoesNotGrowWhenWritersAreIdle() {
+        WriteConcurrencyLimiter limiter = limiter();
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample("jpa", 1_000, 1, true);
+        }
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void testShrinksOnLatencySpikeAndFailure() {
+        WriteConcurrencyLimiter limiter = limiter();
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample("jpa", 1_000, limiter.limit(), true);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample("jpa", 10_000, limiter.limit(), true);
+        }
+        int afterSpike = limiter.limit();
+        assertTrue(afterSpike < 16, "limit after spike: " + afterSpike);
+
+        limiter.onSample("jpa", 10_000, limiter.limit(), false);
+        assertTrue(limiter.limit() <= afterSpike / 2 + 1);
+    }
+
+    @Test
+    void testShrinksOnLatencySpikeWhenWritersAreIdle() {
+        properties.getPersistence().getLimiter().setInitialLimit(8);
+        WriteConcurrencyLimiter limiter = limiter();
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample("jpa", 1_000, 1, true);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample("jpa", 10_000, 1, true);
+        }
+
+        assertTrue(limiter.limit() < 8, "limit after spike: " + limiter.limit());
+    }
+
+    @Test
+    void testCeilingIsPoolSizeMinusReserve() throws Exception {
+        properties.getPersistence().getLimiter().setMaxLimit(0);
+        HikariDataSource pool = new HikariDataSource();
+        pool.setMaximumPoolSize(12);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(pool);
+        WriteConcurrencyLimiter limiter = new WriteConcurrencyLimiter(dataSource, properties, registry);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample("jpa", 1_000, limiter.limit(), true);
+        }
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void testLatencyBaselineIsKeptPerPath() {
+        WriteConcurrencyLimiter limiter = limiter();
+
+        // COPY на строку в 10 раз дешевле JPA: чередование путей не должно выглядеть как всплеск задержки
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample("copy", 100, limiter.limit(), true);
+            limiter.onSample("jpa", 1_000, limiter.limit(), true);
+        }
+
+        assertEquals(16, limiter.limit());
+    }
+
+    @Test
+    void testRejectsWhenNoSlotFreesUpInTime() throws Exception {
+        properties.getPersistence().getLimiter().setInitialLimit(1);
+        properties.getPersistence().getLimiter().setMaxLimit(1);
+        WriteConcurrencyLimiter limiter = limiter();
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> limiter.execute("jpa", 1, () -> {
+                holding.countDown();
+                awaitQuietly(release);
+            }));
+            holding.await();
+
+            assertEquals(1, limiter.inFlight());
+            assertThrows(WriteRejectedException.class, () -> limiter.execute("jpa", 1, () -> { }));
+            assertEquals(1.0, registry.get("db.limiter.rejections").counter().count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private WriteConcurrencyLimiter limiter() {
+        return new WriteConcurrencyLimiter(mock(DataSource.class), properties, registry);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.stage;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageRecorderTest {
+
+    private SimpleMeterRegistry registry;
+    private StageRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        recorder = new StageRecorder(registry);
+    }
+
+    @Test
+    void testBreakdownCoversOnlyTheClosedInterval() {
+        for (int i = 1; i <= 100; i++) {
+            recorder.record(PipelineStage.PARSE, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        recorder.record(PipelineStage.INSERT, TimeUnit.MILLISECONDS.toNanos(40));
+
+        BatchBreakdown first = recorder.completeBatch(100, TimeUnit.SECONDS.toNanos(1));
+        StageStats parse = first.stages().get("parse");
+        assertEquals(100, parse.count());
+        assertEquals(50, parse.p50(), 1);
+        assertEquals(99, parse.p99(), 1);
+        assertEquals(1, first.stages().get("insert").count());
+        assertEquals(0, first.stages().get("commit").count());
+
+        recorder.record(PipelineStage.PARSE, TimeUnit.MILLISECONDS.toNanos(5));
+        BatchBreakdown second = recorder.completeBatch(1, TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(1, second.stages().get("parse").count());
+        assertEquals(5, second.stages().get("parse").p99(), 0.1);
+
+        List<BatchBreakdown> recent = recorder.recentBatches();
+        assertEquals(List.of(second, first), recent);
+        assertEquals(101, recorder.totals().get("parse").count());
+    }
+
+    @Test
+    void testFlushesToMicrometer() {
+        recorder.record(PipelineStage.COMMIT, TimeUnit.MILLISECONDS.toNanos(3));
+        recorder.record(PipelineStage.COMMIT, TimeUnit.MILLISECONDS.toNanos(3));
+
+        FunctionTimer commit = registry.get("parser.stage.duration").tag("stage", "commit").functionTimer();
+        assertEquals(0, commit.count());
+
+        recorder.completeBatch(2, 0);
+
+        assertEquals(2, commit.count());
+        assertEquals(6, commit.totalTime(TimeUnit.MILLISECONDS), 0.1);
+        assertEquals(3, registry.get("parser.stage.latency").tag("stage", "commit").tag("quantile", "0.99")
+                .timeGauge().value(TimeUnit.MILLISECONDS), 0.05);
+    }
+
+    @Test
+    void testKeepsOnlyRecentBatches() {
+        for (int i = 0; i < StageRecorder.RECENT_BATCHES + 5; i++) {
+            recorder.completeBatch(i, 0);
+        }
+
+        List<BatchBreakdown> recent = recorder.recentBatches();
+        assertEquals(StageRecorder.RECENT_BATCHES, recent.size());
+        assertEquals(StageRecorder.RECENT_BATCHES + 4, recent.get(0).batchSize());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.tracing;
+
+import com.example.config.OpenTelemetryConfig;
+import com.example.config.TracingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordTracerTest {
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private RecordTracer recordTracer;
+
+    private void createTracer(TracingMode mode) {
+        TracingProperties tracing = new TracingProperties();
+        tracing.setMode(mode);
+        tracing.setSlowRecordThreshold(Duration.ofHours(1));
+
+        tracerProvider = OpenTelemetryConfig.tracerProvider(tracing, new CapturingExporter()).build();
+        tracer = tracerProvider.get("test");
+        recordTracer = new RecordTracer(tracer, mode, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+    }
+
+    private void runBatch(boolean failSecond) {
+        Span batchSpan = tracer.spanBuilder("parseData").startSpan();
+        for (int i = 0; i < 3; i++) {
+            final int recordNumber = i;
+            final boolean fail = failSecond && i == 1;
+            try {
+                recordTracer.traceRecord(batchSpan, i, () -> {
+                    Span span = recordTracer.startParseSpan();
+                    span.end();
+                    if (fail) {
+                        throw new IllegalStateException("bad record");
+                    }
+                    return recordNumber;
+                });
+            } catch (IllegalStateException expected) {
+                // Ошибка записи обрабатывается вызывающим
+            }
+        }
+        batchSpan.end();
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+    }
+
+    private long countSpans(String name) {
+        return exported.stream().filter(span -> span.getName().equals(name)).count();
+    }
+
+    @Test
+    void testFullModeExportsRecordSpansUnderBatch() {
+        createTracer(TracingMode.FULL);
+        runBatch(false);
+
+        assertEquals(1, countSpans("parseData"));
+        assertEquals(3, countSpans(RecordTracer.RECORD_SPAN));
+        assertEquals(3, countSpans(RecordTracer.PARSE_SPAN));
+
+        SpanData batch = exported.stream().filter(span -> span.getName().equals("parseData")).findFirst().orElseThrow();
+        exported.stream()
+                .filter(span -> span.getName().equals(RecordTracer.RECORD_SPAN))
+                .forEach(span -> assertEquals(batch.getSpanId(), span.getParentSpanId()));
+    }
+
+    @Test
+    void testTailModeKeepsOnlyFailedRecords() {
+        createTracer(TracingMode.TAIL);
+        runBatch(true);
+
+        assertEquals(1, countSpans("parseData"));
+        assertEquals(1, countSpans(RecordTracer.RECORD_SPAN));
+        assertEquals(0, countSpans(RecordTracer.PARSE_SPAN));
+    }
+
+    @Test
+    void testBatchOnlyModeRecordsEvents() {
+        createTracer(TracingMode.BATCH_ONLY);
+        runBatch(true);
+
+        assertEquals(1, exported.size());
+        SpanData batch = exported.get(0);
+        assertEquals(3, batch.getEvents().size());
+        assertEquals(Boolean.TRUE, batch.getEvents().get(1).getAttributes().get(RecordTracer.ERROR));
+    }
+
+    private class CapturingExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            exported.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.tracing;
+
+import com.example.config.OpenTelemetryConfig;
+import com.example.config.TracingProperties;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanRingBufferTest {
+
+    @Test
+    void testKeepsOnlyTheNewestSpans() {
+        SpanRingBuffer buffer = new SpanRingBuffer(100);
+        assertEquals(128, buffer.capacity());
+
+        for (int i = 0; i < 300; i++) {
+            buffer.add(1, i, i + 1, 0, "span-" + (i % 3), i, i * 10L, i % 7 == 0);
+        }
+
+        List<StoredSpan> spans = buffer.snapshot();
+        assertEquals(128, spans.size());
+        assertEquals(300, buffer.written());
+        assertEquals(172, spans.get(0).traceIdLow());
+        assertEquals(299, spans.get(127).traceIdLow());
+        assertEquals("span-" + (299 % 3), spans.get(127).name());
+        assertEquals(2990, spans.get(127).durationNanos());
+        assertTrue(spans.get(0).error() == (172 % 7 == 0));
+    }
+
+    @Test
+    void testConcurrentWritersNeverProduceTornSpans() throws Exception {
+        SpanRingBuffer buffer = new SpanRingBuffer(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            long writer = t;
+            executor.submit(() -> {
+                for (long i = 0; i < 100_000; i++) {
+                    // Все поля спана согласованы между собой - по ним видно смешанные записи
+                    buffer.add(writer, i, i, writer, "writer-" + writer, i, i, false);
+                }
+            });
+        }
+
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            for (StoredSpan span : buffer.snapshot()) {
+                assertEquals(span.traceIdHigh(), span.parentSpanId());
+                assertEquals("writer-" + span.traceIdHigh(), span.name());
+                assertEquals(span.traceIdLow(), span.spanId());
+                assertEquals(span.traceIdLow(), span.durationNanos());
+            }
+            executor.shutdown();
+        }
+        assertEquals(400_000, buffer.written());
+        assertEquals(1024, buffer.snapshot().size());
+    }
+
+    @Test
+    void testCollapsesNamesBeyondDictionaryLimit() {
+        SpanRingBuffer buffer = new SpanRingBuffer(4096);
+        for (int i = 0; i < SpanRingBuffer.MAX_NAMES + 10; i++) {
+            buffer.add(0, i, 1, 0, "name-" + i, 0, 1, false);
+        }
+
+        Set<String> names = new HashSet<>();
+        buffer.snapshot().forEach(span -> names.add(span.name()));
+        assertTrue(names.contains("<other>"));
+        assertEquals(SpanRingBuffer.MAX_NAMES, names.size());
+    }
+
+    @Test
+    void testExporterStoresSdkSpans() {
+        SpanRingBuffer buffer = new SpanRingBuffer(64);
+        SdkTracerProvider tracerProvider = OpenTelemetryConfig
+                .tracerProvider(new TracingProperties(), new RingBufferSpanExporter(buffer))
+                .build();
+        Tracer tracer = tracerProvider.get("test");
+
+        Span parent = tracer.spanBuilder("parseData").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            tracer.spanBuilder("parseRecord").startSpan().setStatus(StatusCode.ERROR).end();
+        } finally {
+            parent.end();
+        }
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+
+        List<StoredSpan> spans = buffer.snapshot();
+        assertEquals(2, spans.size());
+        StoredSpan child = spans.get(0);
+        StoredSpan root = spans.get(1);
+        assertEquals(parent.getSpanContext().getTraceId(), root.traceId());
+        assertEquals(root.traceId(), child.traceId());
+        assertEquals(root.spanIdHex(), child.parentSpanIdHex());
+        assertNull(root.parentSpanIdHex());
+        assertTrue(child.error());
+        assertFalse(root.error());
+    }
+
+    @Test
+    void testBufferKeepsSpansWhenCollectorFails() {
+        SpanRingBuffer buffer = new SpanRingBuffer(64);
+        AtomicInteger collectorAttempts = new AtomicInteger();
+        SpanExporter unreachableCollector = new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                collectorAttempts.addAndGet(spans.size());
+                return CompletableResultCode.ofFailure();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+        SdkTracerProvider tracerProvider = OpenTelemetryConfig
+                .tracerProvider(new TracingProperties(),
+                        List.of(new RingBufferSpanExporter(buffer), unreachableCollector))
+                .build();
+
+        tracerProvider.get("test").spanBuilder("parseData").startSpan().end();
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+
+        assertEquals(1, collectorAttempts.get());
+        assertEquals(1, buffer.snapshot().size());
+    }
+}
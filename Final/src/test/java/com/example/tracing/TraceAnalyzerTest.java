@@ -0,0 +1,60 @@
+package com.example.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceAnalyzerTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void testSlowestTracesSpanFromFirstStartToLastEnd() {
+        List<StoredSpan> spans = List.of(
+                span(1, 10, 0, "parseData", 0, 100 * MS, false),
+                span(1, 11, 10, "parseRecord", 20 * MS, 5 * MS, true),
+                span(2, 20, 0, "parseData", 0, 30 * MS, false),
+                // Корень третьего трейса вытеснен из буфера
+                span(3, 31, 30, "parseRecord", 5 * MS, 300 * MS, false),
+                span(3, 32, 30, "parseRecord", 0, 10 * MS, false));
+
+        List<TraceAnalyzer.TraceSummary> slowest = TraceAnalyzer.slowestTraces(spans, 2);
+
+        assertEquals(2, slowest.size());
+        assertEquals(305, slowest.get(0).durationMillis(), 0.001);
+        assertEquals("parseRecord", slowest.get(0).rootName());
+        assertEquals(100, slowest.get(1).durationMillis(), 0.001);
+        assertEquals("parseData", slowest.get(1).rootName());
+        assertEquals(2, slowest.get(1).spans());
+        assertEquals(1, slowest.get(1).errors());
+    }
+
+    @Test
+    void testStatsByName() {
+        List<StoredSpan> spans = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            spans.add(span(i, i, 1, "parseRecord", 0, i * MS, i % 10 == 0));
+        }
+        spans.add(span(0, 1, 0, "parseData", 0, 20_000 * MS, false));
+
+        Map<String, TraceAnalyzer.SpanNameStats> stats = TraceAnalyzer.byName(spans);
+
+        TraceAnalyzer.SpanNameStats record = stats.get("parseRecord");
+        assertEquals(100, record.count());
+        assertEquals(0.1, record.errorRate(), 1e-9);
+        assertEquals(50, record.p50Millis(), 1e-9);
+        assertEquals(99, record.p99Millis(), 1e-9);
+        assertEquals(100, record.maxMillis(), 1e-9);
+        assertEquals(1, record.histogram().get("le_1.0"));
+        assertEquals(50, record.histogram().get("le_100.0"));
+        assertEquals(1, stats.get("parseData").histogram().get("gt_10000.0"));
+    }
+
+    private static StoredSpan span(long trace, long id, long parent, String name, long start, long duration, boolean error) {
+        return new StoredSpan(0, trace, id, parent, name, start, duration, error);
+    }
+}
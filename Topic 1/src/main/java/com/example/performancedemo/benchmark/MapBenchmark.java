@@ -1,7 +1,11 @@
 package com.example.performancedemo.benchmark;
 
+import com.example.performancedemo.map.ConcurrentIntIntMap;
+import com.example.performancedemo.map.IntIntMap;
+import com.example.performancedemo.map.StampedIntIntMap;
+import com.example.performancedemo.map.StripedIntIntMap;
 import org.openjdk.jmh.annotations.*;
-import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -10,96 +14,189 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-
+import java.util.function.IntFunction;
+
+/**
+ * Кандидаты для горячих справочников int -> int под смешанной нагрузкой: доля чтений, размер
+ * набора ключей и распределение ключей задаются @Param, число потоков - через main или -t.
+ * Ключи и тип операции для каждого потока заранее сгенерированы со своим seed, так что в замер
+ * не попадает ни генератор случайных чисел, ни конкуренция за общий Random.
+ * Полная матрица долгая; сузить можно через -p, например -p impl=CONCURRENT,STAMPED.
+ */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.SECONDS)
 @State(Scope.Benchmark)
 @Warmup(iterations = 3, time = 1)
 @Measurement(iterations = 5, time = 1)
 @Fork(1)
-@Threads(8) // Тестируем с 8 потоками
+@Threads(8) // По умолчанию 8 потоков, main прогоняет THREADS
 public class MapBenchmark {
 
-    private Map<String, Integer> synchronizedMap;
-    private Map<String, Integer> concurrentHashMap;
-    private String[] keys;
-    private Random random;
+    private static final int[] THREADS = {1, 4, 8};
+    private static final int STREAM_LENGTH = 1 << 16;
+    private static final double ZIPF_EXPONENT = 0.99;
 
-    @Setup
-    public void setup() {
-        synchronizedMap = Collections.synchronizedMap(new HashMap<>());
-        concurrentHashMap = new ConcurrentHashMap<>();
+    public enum Implementation {
+        SYNCHRONIZED(size -> new BoxedIntIntMap(Collections.synchronizedMap(new HashMap<>(size * 2)))),
+        CONCURRENT(size -> new BoxedIntIntMap(new ConcurrentHashMap<>(size * 2))),
+        OPEN_ADDRESSING(ConcurrentIntIntMap::new),
+        STRIPED(StripedIntIntMap::new),
+        STAMPED(StampedIntIntMap::new);
+
+        private final IntFunction<IntIntMap> factory;
 
-        // Инициализируем ключи
-        keys = new String[10000];
-        for (int i = 0; i < keys.length; i++) {
-            keys[i] = "key-" + i;
+        Implementation(IntFunction<IntIntMap> factory) {
+            this.factory = factory;
         }
+    }
 
-        random = new Random();
+    public enum Distribution {
+        UNIFORM,
+        /**
+         * Zipf с перемешанными рангами: горячие ключи не соседние, иначе они попадают
+         * в один страйп и в соседние слоты таблицы
+         */
+        ZIPF
+    }
 
-        // Предварительно заполняем мапы
-        for (String key : keys) {
-            synchronizedMap.put(key, random.nextInt());
-            concurrentHashMap.put(key, random.nextInt());
+    /**
+     * Map из JDK за тем же интерфейсом; упаковка ключей и значений - часть того, что меряем
+     */
+    static final class BoxedIntIntMap implements IntIntMap {
+
+        private final Map<Integer, Integer> map;
+
+        BoxedIntIntMap(Map<Integer, Integer> map) {
+            this.map = map;
         }
-    }
 
-    @Benchmark
-    @Group("synchronized")
-    @GroupThreads(4)
-    public void synchronizedPut(Blackhole bh) {
-        String key = keys[random.nextInt(keys.length)];
-        synchronizedMap.put(key, random.nextInt());
-        bh.consume(key);
+        @Override
+        public int get(int key) {
+            Integer value = map.get(key);
+            return value == null ? NO_VALUE : value;
+        }
+
+        @Override
+        public void put(int key, int value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
     }
 
-    @Benchmark
-    @Group("synchronized")
-    @GroupThreads(4)
-    public Integer synchronizedGet() {
-        String key = keys[random.nextInt(keys.length)];
-        return synchronizedMap.get(key);
+    @Param({"SYNCHRONIZED", "CONCURRENT", "OPEN_ADDRESSING", "STRIPED", "STAMPED"})
+    private Implementation impl;
+
+    @Param({"50", "90", "99"})
+    private int readPercent;
+
+    @Param({"1024", "1048576"})
+    private int keySpace;
+
+    @Param({"UNIFORM", "ZIPF"})
+    private Distribution distribution;
+
+    private IntIntMap map;
+
+    // Общие для всех потоков: CDF Zipf по рангам и перестановка ранг -> ключ
+    private double[] zipfCdf;
+    private int[] rankToKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        map = impl.factory.apply(keySpace);
+        // Ключи 1..keySpace: 0 у open addressing таблиц - маркер пустого слота
+        for (int key = 1; key <= keySpace; key++) {
+            map.put(key, key);
+        }
+
+        if (distribution == Distribution.ZIPF) {
+            zipfCdf = new double[keySpace];
+            double sum = 0;
+            for (int rank = 0; rank < keySpace; rank++) {
+                sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                zipfCdf[rank] = sum;
+            }
+            for (int rank = 0; rank < keySpace; rank++) {
+                zipfCdf[rank] /= sum;
+            }
+
+            rankToKey = new int[keySpace];
+            for (int i = 0; i < keySpace; i++) {
+                rankToKey[i] = i + 1;
+            }
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = keySpace - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = rankToKey[i];
+                rankToKey[i] = rankToKey[j];
+                rankToKey[j] = tmp;
+            }
+        }
     }
 
-    @Benchmark
-    @Group("concurrent")
-    @GroupThreads(4)
-    public void concurrentPut(Blackhole bh) {
-        String key = keys[random.nextInt(keys.length)];
-        concurrentHashMap.put(key, random.nextInt());
-        bh.consume(key);
+    @State(Scope.Thread)
+    public static class KeyStream {
+
+        int[] keys;
+        boolean[] writes;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setup(MapBenchmark benchmark, ThreadParams threadParams) {
+            SplittableRandom random = new SplittableRandom(1_000_003L * (threadParams.getThreadIndex() + 1));
+            keys = new int[STREAM_LENGTH];
+            writes = new boolean[STREAM_LENGTH];
+            for (int i = 0; i < STREAM_LENGTH; i++) {
+                keys[i] = benchmark.nextKey(random);
+                writes[i] = random.nextInt(100) >= benchmark.readPercent;
+            }
+        }
+
+        int next() {
+            return cursor = (cursor + 1) & (STREAM_LENGTH - 1);
+        }
     }
 
-    @Benchmark
-    @Group("concurrent")
-    @GroupThreads(4)
-    public Integer concurrentGet() {
-        String key = keys[random.nextInt(keys.length)];
-        return concurrentHashMap.get(key);
+    int nextKey(SplittableRandom random) {
+        if (distribution == Distribution.UNIFORM) {
+            return 1 + random.nextInt(keySpace);
+        }
+        int rank = Arrays.binarySearch(zipfCdf, random.nextDouble());
+        rank = rank >= 0 ? rank : Math.min(-rank - 1, keySpace - 1);
+        return rankToKey[rank];
     }
 
     @Benchmark
-    @Group("synchronizedCompute")
-    public Integer synchronizedCompute() {
-        String key = keys[random.nextInt(keys.length)];
-        return synchronizedMap.compute(key, (k, v) ->
-                (v == null) ? random.nextInt() : v + 1);
+    public int readWrite(KeyStream stream) {
+        int i = stream.next();
+        int key = stream.keys[i];
+        if (stream.writes[i]) {
+            map.put(key, i);
+            return i;
+        }
+        return map.get(key);
     }
 
-    @Benchmark
-    @Group("concurrentCompute")
-    public Integer concurrentCompute() {
-        String key = keys[random.nextInt(keys.length)];
-        return concurrentHashMap.compute(key, (k, v) ->
-                (v == null) ? random.nextInt() : v + 1);
+    @TearDown(Level.Trial)
+    public void verify() {
+        // Ключи только перезаписываются: размер не должен меняться
+        if (map.size() != keySpace) {
+            throw new IllegalStateException(impl + " lost keys: " + map.size() + " of " + keySpace);
+        }
     }
 
     public static void main(String[] args) throws RunnerException {
-        Options opt = new OptionsBuilder()
-                .include(MapBenchmark.class.getSimpleName())
-                .build();
+        for (int threads : THREADS) {
+            Options opt = new OptionsBuilder()
+                    .include(MapBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
 
-        new Runner(opt).run();
+            new Runner(opt).run();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.example.performancedemo.compute;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отдельный work-stealing пул платформенных потоков по числу CPU для CPU-bound работы.
+ * Виртуальные потоки делят маленький пул носителей: долгий расчёт прямо в обработчике
+ * занимает носитель и задерживает все блокирующие эндпоинты. Через {@link #invoke} расчёт
+ * уходит сюда, а виртуальный поток запроса паркуется до результата и носитель не держит.
+ *
+ * Допуск: не больше max-pending задач в пуле (в очереди и в работе); кто не дождался места
+ * за admission-timeout, получает {@link ComputeRejectedException} (503), а не растущую очередь.
+ */
+@Slf4j
+@Component
+public class ComputePool {
+
+    private final ForkJoinPool pool;
+    private final Semaphore admission;
+    private final int maxPending;
+    private final Duration admissionTimeout;
+
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public ComputePool(MeterRegistry meterRegistry,
+                       @Value("${compute.pool.parallelism:0}") int parallelism,
+                       @Value("${compute.pool.max-pending:0}") int maxPending,
+                       @Value("${compute.pool.admission-timeout:100ms}") Duration admissionTimeout) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxPending = maxPending > 0 ? maxPending : threads * 4;
+        this.admissionTimeout = admissionTimeout;
+        this.admission = new Semaphore(this.maxPending);
+        this.pool = new ForkJoinPool(threads, ComputePool::newWorker, null, false);
+
+        new ExecutorServiceMetrics(pool, "compute", Tags.empty()).bindTo(meterRegistry);
+        this.queueWait = Timer.builder("compute.queue.wait")
+                .description("Time a compute task waited before a worker picked it up")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("compute.rejected")
+                .description("Compute tasks rejected by admission control")
+                .register(meterRegistry);
+        Gauge.builder("compute.pending", admission, permits -> this.maxPending - permits.availablePermits())
+                .description("Admitted compute tasks, queued or running")
+                .register(meterRegistry);
+
+        log.info("Compute pool: {} workers, max {} pending", threads, this.maxPending);
+    }
+
+    /**
+     * Выполняет work в пуле и ждёт результат. Внутри work можно форкать RecursiveTask:
+     * invoke() в воркере раскладывает подзадачи по этому же пулу.
+     */
+    public <T> T invoke(Callable<T> work) throws InterruptedException {
+        if (!admission.tryAcquire(admissionTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            throw new ComputeRejectedException(maxPending);
+        }
+        try {
+            long submitted = System.nanoTime();
+            ForkJoinTask<T> task = pool.submit(() -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return work.call();
+            });
+            try {
+                // Из виртуального потока get() паркуется через LockSupport и освобождает носитель
+                return task.get();
+            } catch (InterruptedException e) {
+                // Ещё не начатая задача не запустится; начатая досчитает
+                task.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Compute task failed", e.getCause());
+            }
+        } finally {
+            admission.release();
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("compute-" + thread.getPoolIndex());
+        return thread;
+    }
+}
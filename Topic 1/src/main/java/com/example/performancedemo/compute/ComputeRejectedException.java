@@ -0,0 +1,12 @@
+package com.example.performancedemo.compute;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ComputeRejectedException extends RuntimeException {
+
+    public ComputeRejectedException(int maxPending) {
+        super("Compute pool is saturated (" + maxPending + " tasks pending)");
+    }
+}
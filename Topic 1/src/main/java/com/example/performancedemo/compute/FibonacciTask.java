@@ -0,0 +1,40 @@
+package com.example.performancedemo.compute;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Наивная рекурсия Фибоначчи (нагрузка /api/fibonacci), разложенная по fork-join: fib(n-1)
+ * форкается, fib(n-2) считается в текущем воркере. Ниже threshold дробить дороже, чем считать.
+ */
+public class FibonacciTask extends RecursiveTask<Long> {
+
+    /**
+     * При меньшем пороге ветка n - 2 уходит в отрицательные n: результат неверен,
+     * а число подзадач растёт экспоненциально
+     */
+    public static final int MIN_THRESHOLD = 2;
+
+    private final int n;
+    private final int threshold;
+
+    public FibonacciTask(int n, int threshold) {
+        this.n = n;
+        this.threshold = Math.max(MIN_THRESHOLD, threshold);
+    }
+
+    @Override
+    protected Long compute() {
+        if (n <= threshold) {
+            return sequential(n);
+        }
+        FibonacciTask first = new FibonacciTask(n - 1, threshold);
+        first.fork();
+        long second = new FibonacciTask(n - 2, threshold).compute();
+        return first.join() + second;
+    }
+
+    public static long sequential(int n) {
+        if (n <= 1) return n;
+        return sequential(n - 1) + sequential(n - 2);
+    }
+}
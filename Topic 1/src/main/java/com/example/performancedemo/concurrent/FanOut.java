@@ -0,0 +1,266 @@
+package com.example.performancedemo.concurrent;
+
+import com.example.performancedemo.metrics.LogLinearHistogram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Структурный fan-out на виртуальных потоках: подзадачи не переживают вызов {@link #invoke}.
+ * Одновременно работают не больше per-request-limit подзадач запроса и global-limit по всему
+ * приложению; новые стартуют по мере освобождения мест, поэтому tasks=100000 - это волны,
+ * а не сто тысяч потоков разом. По дедлайну, первой ошибке или прерыванию владельца
+ * оставшиеся подзадачи не запускаются, а работающие прерываются; возвращаются готовые результаты.
+ *
+ * StructuredTaskScope в Java 21 - preview, а проект собирается без --enable-preview,
+ * поэтому семантика (fork, join до дедлайна, shutdown с прерыванием) сделана вручную.
+ */
+@Component
+public class FanOut {
+
+    private static final int SUB_BITS = 3;
+
+    @FunctionalInterface
+    public interface Subtask<T> {
+        T call(int index) throws Exception;
+    }
+
+    /**
+     * @param results   готовые результаты в порядке индексов подзадач
+     * @param cancelled не запущенные и прерванные подзадачи
+     */
+    public record Outcome<T>(List<T> results, int requested, int completed, int failed, int cancelled,
+                             boolean timedOut, Throwable firstFailure, Duration elapsed, Duration straggler) {
+    }
+
+    private final Semaphore global;
+    private final int globalLimit;
+    private final int perRequestLimit;
+    private final ThreadFactory threads = Thread.ofVirtual().name("fanout-", 0).factory();
+
+    private final DistributionSummary width;
+    private final Timer subtaskLatency;
+    private final Timer stragglerLatency;
+    private final DistributionSummary stragglerRatio;
+    private final Counter failedTasks;
+    private final Counter cancelledTasks;
+    private final Counter timeouts;
+
+    public FanOut(MeterRegistry meterRegistry,
+                  @Value("${fanout.global-limit:2000}") int globalLimit,
+                  @Value("${fanout.per-request-limit:100}") int perRequestLimit) {
+        this.globalLimit = globalLimit;
+        this.perRequestLimit = perRequestLimit;
+        this.global = new Semaphore(globalLimit);
+
+        this.width = DistributionSummary.builder("fanout.width")
+                .description("Subtasks requested per fan-out")
+                .register(meterRegistry);
+        this.subtaskLatency = Timer.builder("fanout.subtask")
+                .description("Latency of completed fan-out subtasks")
+                .register(meterRegistry);
+        this.stragglerLatency = Timer.builder("fanout.straggler")
+                .description("Slowest completed subtask of each fan-out")
+                .register(meterRegistry);
+        this.stragglerRatio = DistributionSummary.builder("fanout.straggler.ratio")
+                .description("Slowest to median subtask latency of each fan-out")
+                .register(meterRegistry);
+        this.failedTasks = Counter.builder("fanout.failed")
+                .description("Fan-out subtasks that threw")
+                .register(meterRegistry);
+        this.cancelledTasks = Counter.builder("fanout.cancelled")
+                .description("Fan-out subtasks not started or interrupted")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("fanout.timeouts")
+                .description("Fan-outs cut short by their deadline")
+                .register(meterRegistry);
+        Gauge.builder("fanout.active", global, permits -> globalLimit - permits.availablePermits())
+                .description("Fan-out subtasks running across all requests")
+                .register(meterRegistry);
+    }
+
+    public <T> Outcome<T> invoke(int tasks, Duration timeout, Subtask<T> subtask) throws InterruptedException {
+        if (tasks < 0) {
+            throw new IllegalArgumentException("Negative number of tasks: " + tasks);
+        }
+        width.record(tasks);
+        try (Scope<T> scope = new Scope<>(tasks, timeout)) {
+            scope.forkAll(subtask);
+            scope.join();
+            return scope.outcome();
+        }
+    }
+
+    public int getGlobalLimit() {
+        return globalLimit;
+    }
+
+    public int getPerRequestLimit() {
+        return perRequestLimit;
+    }
+
+    private final class Scope<T> implements AutoCloseable {
+
+        final long start = System.nanoTime();
+        final long deadline;
+        final Semaphore local = new Semaphore(perRequestLimit);
+        final AtomicReferenceArray<T> results;
+        final Set<Thread> running = ConcurrentHashMap.newKeySet();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        final LogLinearHistogram latencyMicros = new LogLinearHistogram(SUB_BITS);
+        volatile boolean shutdown;
+        boolean timedOut;
+
+        Scope(int tasks, Duration timeout) {
+            this.deadline = start + timeout.toNanos();
+            this.results = new AtomicReferenceArray<>(tasks);
+        }
+
+        void forkAll(Subtask<T> subtask) throws InterruptedException {
+            for (int i = 0; i < results.length() && !shutdown; i++) {
+                // tryAcquire с нулевым таймаутом всё равно берёт свободный permit
+                if (remaining() <= 0) {
+                    break;
+                }
+                if (!local.tryAcquire(remaining(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                if (!global.tryAcquire(remaining(), TimeUnit.NANOSECONDS)) {
+                    local.release();
+                    break;
+                }
+                fork(i, subtask);
+            }
+        }
+
+        private void fork(int index, Subtask<T> subtask) {
+            Thread thread = threads.newThread(() -> {
+                long taskStart = System.nanoTime();
+                try {
+                    T result = subtask.call(index);
+                    long nanos = System.nanoTime() - taskStart;
+                    results.set(index, result);
+                    completed.incrementAndGet();
+                    latencyMicros.record(nanos / 1000);
+                    subtaskLatency.record(nanos, TimeUnit.NANOSECONDS);
+                } catch (Exception e) {
+                    // Прерывание после shutdown - отмена, а не ошибка подзадачи
+                    if (!shutdown && !(e instanceof InterruptedException)) {
+                        failed.incrementAndGet();
+                        firstFailure.compareAndSet(null, e);
+                        shutdown();
+                    }
+                } finally {
+                    running.remove(Thread.currentThread());
+                    global.release();
+                    local.release();
+                }
+            });
+            running.add(thread);
+            thread.start();
+        }
+
+        /**
+         * Ждёт подзадачи до дедлайна; после него - shutdown и ожидание прерванных
+         */
+        void join() throws InterruptedException {
+            try {
+                for (Thread thread : List.copyOf(running)) {
+                    long remaining = remaining();
+                    if (remaining <= 0 || !thread.join(Duration.ofNanos(remaining))) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                shutdown();
+                throw e;
+            }
+            boolean unfinished = !running.isEmpty() || completed.get() + failed.get() < results.length();
+            if (unfinished && firstFailure.get() == null) {
+                timedOut = true;
+                timeouts.increment();
+            }
+            shutdown();
+            awaitRunning();
+        }
+
+        void shutdown() {
+            shutdown = true;
+            running.forEach(Thread::interrupt);
+        }
+
+        private long remaining() {
+            return deadline - System.nanoTime();
+        }
+
+        Outcome<T> outcome() {
+            List<T> ready = new ArrayList<>(completed.get());
+            for (int i = 0; i < results.length(); i++) {
+                T result = results.get(i);
+                if (result != null) {
+                    ready.add(result);
+                }
+            }
+            int cancelled = results.length() - completed.get() - failed.get();
+            cancelledTasks.increment(cancelled);
+            failedTasks.increment(failed.get());
+
+            Duration straggler = Duration.ofNanos(latencyMicros.max() * 1000);
+            if (latencyMicros.count() > 0) {
+                stragglerLatency.record(straggler);
+                double median = latencyMicros.percentile(0.5);
+                if (median > 0) {
+                    stragglerRatio.record(latencyMicros.max() / median);
+                }
+            }
+            return new Outcome<>(ready, results.length(), completed.get(), failed.get(), cancelled, timedOut,
+                    firstFailure.get(), Duration.ofNanos(System.nanoTime() - start), straggler);
+        }
+
+        private void awaitRunning() throws InterruptedException {
+            InterruptedException interrupted = null;
+            for (Thread thread : List.copyOf(running)) {
+                while (true) {
+                    try {
+                        thread.join();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = e;
+                    }
+                }
+            }
+            if (interrupted != null) {
+                throw interrupted;
+            }
+        }
+
+        /**
+         * Подзадачи не переживают scope: при выходе по исключению незавершённые прерываются и дожидаются
+         */
+        @Override
+        public void close() throws InterruptedException {
+            if (!running.isEmpty()) {
+                shutdown();
+                awaitRunning();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.performancedemo.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,7 +9,12 @@ import org.springframework.core.task.support.TaskExecutorAdapter;
 
 import java.util.concurrent.Executors;
 
+/**
+ * С spring.threads.virtual.enabled=false Tomcat остаётся на пуле платформенных потоков
+ * (server.tomcat.threads.max) - для сравнения с thread-per-request
+ */
 @Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
 public class VirtualThreadConfig {
 
     /**
@@ -1,10 +1,19 @@
 package com.example.performancedemo.controller;
 
+import com.example.performancedemo.compute.ComputePool;
+import com.example.performancedemo.compute.FibonacciTask;
+import com.example.performancedemo.metrics.RequestMetrics;
+import com.example.performancedemo.metrics.RollingWindow;
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -13,9 +22,26 @@ import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 @Timed(value = "test.controller")
 public class TestController {
 
+    /**
+     * Наивная рекурсия экспоненциальна: fib(45) уже считается секунды
+     */
+    private static final int MAX_FIBONACCI_N = 45;
+
+    private final RequestMetrics requestMetrics;
+    private final MeterRegistry meterRegistry;
+    private final ComputePool computePool;
+
+    private record Computed(long result, String thread) {
+
+        static Computed here(long result) {
+            return new Computed(result, Thread.currentThread().getName());
+        }
+    }
+
     // Для демонстрации разных структур данных
     private final Map<String, String> synchronizedMap =
             java.util.Collections.synchronizedMap(new HashMap<>());
@@ -66,48 +92,65 @@ public class TestController {
 
     /**
      * Эндпоинт для вычисления чисел Фибоначчи (CPU-intensive операция)
+     * mode: inline - в потоке запроса, pool - последовательно в compute-пуле,
+     * parallel - fork-join в compute-пуле
      */
     @GetMapping("/api/fibonacci")
     public Map<String, Object> fibonacci(
-            @RequestParam(defaultValue = "30") int n) {
+            @RequestParam(defaultValue = "30") int n,
+            @RequestParam(defaultValue = "pool") String mode,
+            @RequestParam(defaultValue = "20") int threshold) throws InterruptedException {
+
+        if (n < 0 || n > MAX_FIBONACCI_N) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "n must be between 0 and " + MAX_FIBONACCI_N);
+        }
+        if (threshold < FibonacciTask.MIN_THRESHOLD) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "threshold must be at least " + FibonacciTask.MIN_THRESHOLD);
+        }
 
         long startTime = System.currentTimeMillis();
-        long result = calculateFibonacci(n);
+        Computed computed = switch (mode) {
+            case "inline" -> Computed.here(FibonacciTask.sequential(n));
+            case "pool" -> computePool.invoke(() -> Computed.here(FibonacciTask.sequential(n)));
+            case "parallel" -> computePool.invoke(() -> Computed.here(new FibonacciTask(n, threshold).invoke()));
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown mode: " + mode);
+        };
         long elapsedTime = System.currentTimeMillis() - startTime;
 
         Map<String, Object> response = new HashMap<>();
         response.put("n", n);
-        response.put("result", result);
+        response.put("mode", mode);
+        response.put("result", computed.result());
         response.put("calculationTimeMs", elapsedTime);
         response.put("thread", Thread.currentThread().getName());
+        response.put("computeThread", computed.thread());
 
         return response;
     }
 
     /**
-     * Эндпоинт для получения метрик пропускной способности
+     * Эндпоинт для получения метрик пропускной способности: RPS, перцентили и in-flight
+     * за последние 60 секунд, обычные потоки против виртуальных
      */
     @GetMapping("/api/metrics/throughput")
     public Map<String, Object> getThroughputMetrics() {
         Map<String, Object> metrics = new HashMap<>();
 
-        // Здесь обычно получаем метрики из MeterRegistry
-        // Для демонстрации возвращаем заглушку
-        metrics.put("totalRequests",
-                io.micrometer.core.instrument.Metrics.globalRegistry
-                        .find("http.server.requests")
-                        .counter()
-                        .count());
+        // http.server.requests - Timer с тегами uri/status, а не Counter: суммируем все серии
+        metrics.put("totalRequests", meterRegistry.find("http.server.requests").timers().stream()
+                .mapToLong(Timer::count)
+                .sum());
+        metrics.put("windowSeconds", RollingWindow.WINDOW_SECONDS);
+        metrics.put("blocking", requestMetrics.snapshot("/api/blocking"));
+        metrics.put("virtual", requestMetrics.snapshot("/api/virtual/blocking"));
+        metrics.put("endpoints", requestMetrics.snapshots());
         metrics.put("currentTime", System.currentTimeMillis());
 
         return metrics;
     }
 
-    private long calculateFibonacci(int n) {
-        if (n <= 1) return n;
-        return calculateFibonacci(n - 1) + calculateFibonacci(n - 2);
-    }
-
     private void processData() {
         // Имитация обработки данных
         int[] array = new int[1000];
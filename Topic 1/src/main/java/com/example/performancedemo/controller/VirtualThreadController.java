@@ -1,11 +1,16 @@
 package com.example.performancedemo.controller;
 
+import com.example.performancedemo.concurrent.FanOut;
 import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,9 +18,12 @@ import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 @Timed(value = "virtual.controller")
 public class VirtualThreadController {
 
+    private final FanOut fanOut;
+
     private final Map<String, String> concurrentMap = new ConcurrentHashMap<>();
 
     /**
@@ -57,48 +65,46 @@ public class VirtualThreadController {
 
     /**
      * Эндпоинт для тестирования массовых параллельных операций
+     * Одновременность ограничена FanOut; по timeoutMs возвращаются готовые результаты,
+     * failAt - номер задачи, которая упадёт (проверка отмены соседей)
      */
     @GetMapping("/api/virtual/parallel")
     public Map<String, Object> parallelOperations(
-            @RequestParam(defaultValue = "10") int tasks) {
-
-        long startTime = System.currentTimeMillis();
-
-        try (var executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
-            var futures = new java.util.ArrayList<java.util.concurrent.Future<String>>();
-
-            for (int i = 0; i < tasks; i++) {
-                final int taskId = i;
-                futures.add(executor.submit(() -> {
-                    try {
-                        Thread.sleep(100); // Имитация I/O
-                        return "Task-" + taskId + " completed by " +
-                                Thread.currentThread().getName();
-                    } catch (InterruptedException e) {
-                        return "Task-" + taskId + " interrupted";
-                    }
-                }));
-            }
+            @RequestParam(defaultValue = "10") int tasks,
+            @RequestParam(defaultValue = "100") long delayMs,
+            @RequestParam(defaultValue = "5000") long timeoutMs,
+            @RequestParam(defaultValue = "-1") int failAt) throws InterruptedException {
 
-            // Собираем результаты
-            var results = new java.util.ArrayList<String>();
-            for (var future : futures) {
-                results.add(future.get());
+        if (tasks < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tasks must not be negative");
+        }
+        if (timeoutMs < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "timeoutMs must not be negative");
+        }
+        FanOut.Outcome<String> outcome = fanOut.invoke(tasks, Duration.ofMillis(timeoutMs), taskId -> {
+            Thread.sleep(delayMs); // Имитация I/O
+            if (taskId == failAt) {
+                throw new IllegalStateException("Task-" + taskId + " failed");
             }
+            return "Task-" + taskId + " completed by " + Thread.currentThread().getName();
+        });
 
-            long elapsedTime = System.currentTimeMillis() - startTime;
+        long elapsedTime = outcome.elapsed().toMillis();
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("totalTasks", tasks);
-            response.put("completedTasks", results.size());
-            response.put("executionTimeMs", elapsedTime);
-            response.put("averageTimePerTaskMs", (double) elapsedTime / tasks);
-            response.put("resultsSample", results.subList(0, Math.min(5, results.size())));
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalTasks", tasks);
+        response.put("completedTasks", outcome.completed());
+        response.put("failedTasks", outcome.failed());
+        response.put("cancelledTasks", outcome.cancelled());
+        response.put("timedOut", outcome.timedOut());
+        response.put("error", outcome.firstFailure() != null ? outcome.firstFailure().getMessage() : null);
+        response.put("perRequestLimit", fanOut.getPerRequestLimit());
+        response.put("executionTimeMs", elapsedTime);
+        response.put("stragglerMs", outcome.straggler().toMillis());
+        response.put("averageTimePerTaskMs", tasks > 0 ? (double) elapsedTime / tasks : 0);
+        response.put("resultsSample", outcome.results().subList(0, Math.min(5, outcome.results().size())));
 
-            return response;
-        } catch (Exception e) {
-            throw new RuntimeException("Parallel execution failed", e);
-        }
+        return response;
     }
 
     private void processData() {
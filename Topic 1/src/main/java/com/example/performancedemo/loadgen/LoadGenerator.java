@@ -0,0 +1,237 @@
+package com.example.performancedemo.loadgen;
+
+import com.example.performancedemo.metrics.LogLinearHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop нагрузка на эндпоинты: запросы уходят по расписанию с заданной частотой независимо
+ * от того, ответил ли сервер на предыдущие. Каждый запрос - отдельный виртуальный поток,
+ * число одновременных ограничено concurrency; при упоре в потолок планировщик ждёт.
+ *
+ * Латентность считается от запланированного момента отправки, а не от фактического, поэтому
+ * ожидание в очереди (своей или сервера) не теряется - поправка на coordinated omission.
+ * Рядом печатается service time от фактической отправки: их разница и есть то, что прячут
+ * closed-loop инструменты.
+ *
+ * Пул потоков определяется сервером, а не эндпоинтом: для сравнения thread-per-request и
+ * виртуальных потоков прогон повторяется против приложения, запущенного с
+ * --spring.threads.virtual.enabled=false и =true.
+ *
+ * Запуск (приложение уже поднято):
+ * java -cp target/classes com.example.performancedemo.loadgen.LoadGenerator \
+ *     base=http://localhost:8080 endpoints=/api/blocking,/api/virtual/blocking \
+ *     rate=500 concurrency=2000 warmup=5s duration=30s
+ */
+public class LoadGenerator {
+
+    private static final int SUB_BITS = 5; // ~3% ширина корзины
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999, 0.9999};
+    private static final Pattern DURATION = Pattern.compile("(\\d+)(ms|s|m)");
+
+    public record Settings(String base, List<String> endpoints, double rate, int concurrency,
+                           Duration warmup, Duration duration, Duration timeout) {
+
+        static Settings parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected key=value, got " + arg);
+                }
+                values.put(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+            }
+            Settings settings = new Settings(
+                    values.getOrDefault("base", "http://localhost:8080"),
+                    Arrays.asList(values.getOrDefault("endpoints", "/api/blocking,/api/virtual/blocking").split(",")),
+                    number("rate", values.getOrDefault("rate", "200")),
+                    integer("concurrency", values.getOrDefault("concurrency", "1000")),
+                    duration(values.getOrDefault("warmup", "5s")),
+                    duration(values.getOrDefault("duration", "30s")),
+                    duration(values.getOrDefault("timeout", "10s")));
+            if (settings.rate() <= 0 || settings.concurrency() <= 0) {
+                throw new IllegalArgumentException("rate and concurrency must be positive");
+            }
+            return settings;
+        }
+
+        // 30s, 500ms, 2m
+        static Duration duration(String value) {
+            Matcher matcher = DURATION.matcher(value);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Expected a duration like 30s, 500ms or 2m, got '" + value + "'");
+            }
+            long amount = Long.parseLong(matcher.group(1));
+            return switch (matcher.group(2)) {
+                case "ms" -> Duration.ofMillis(amount);
+                case "s" -> Duration.ofSeconds(amount);
+                default -> Duration.ofMinutes(amount);
+            };
+        }
+
+        private static double number(String key, String value) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a number for " + key + ", got '" + value + "'");
+            }
+        }
+
+        private static int integer(String key, String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected an integer for " + key + ", got '" + value + "'");
+            }
+        }
+    }
+
+    public record Result(String endpoint, long sent, long ok, long errors, long timeouts, double throughput,
+                         LogLinearHistogram corrected, LogLinearHistogram service) {
+    }
+
+    private final Settings settings;
+    private final HttpClient client;
+
+    public LoadGenerator(Settings settings) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.timeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public Result run(String endpoint) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(settings.base() + endpoint))
+                .timeout(settings.timeout())
+                .GET()
+                .build();
+
+        LogLinearHistogram corrected = new LogLinearHistogram(SUB_BITS);
+        LogLinearHistogram service = new LogLinearHistogram(SUB_BITS);
+        LongAdder ok = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder timeouts = new LongAdder();
+        Semaphore permits = new Semaphore(settings.concurrency());
+
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        long sent = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                // Ждём своего момента; если отстали (потолок concurrency, пауза GC) - не ждём,
+                // а догоняем расписание: латентность отставших всё равно считается от intended
+                long delay;
+                while ((delay = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                permits.acquire();
+
+                boolean measured = intended >= measureFrom;
+                sent += measured ? 1 : 0;
+                executor.submit(() -> {
+                    long actual = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (measured) {
+                            (response.statusCode() < 400 ? ok : errors).increment();
+                        }
+                    } catch (HttpTimeoutException e) {
+                        if (measured) {
+                            timeouts.increment();
+                        }
+                    } catch (IOException e) {
+                        if (measured) {
+                            errors.increment();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        long now = System.nanoTime();
+                        if (measured) {
+                            corrected.record((now - intended) / 1000);
+                            service.record((now - actual) / 1000);
+                        }
+                        permits.release();
+                    }
+                });
+            }
+        } // close() дожидается оставшихся запросов
+
+        // Окно измерения - запланированное, а не до конца хвоста: иначе ожидание close() занижает req/s
+        double seconds = (end - measureFrom) / 1e9;
+        return new Result(endpoint, sent, ok.sum(), errors.sum(), timeouts.sum(), ok.sum() / seconds, corrected, service);
+    }
+
+    static void print(Result result, Settings settings) {
+        System.out.printf("%n=== %s: %.0f req/s for %ds, concurrency %d ===%n", result.endpoint(), settings.rate(),
+                settings.duration().toSeconds(), settings.concurrency());
+        System.out.printf("sent %d, ok %d, errors %d, timeouts %d, throughput %.1f req/s%n",
+                result.sent(), result.ok(), result.errors(), result.timeouts(), result.throughput());
+        System.out.printf("%-10s %16s %14s%n", "percentile", "corrected (ms)", "service (ms)");
+        for (double percentile : PERCENTILES) {
+            System.out.printf("%-10s %16.2f %14.2f%n", label(percentile),
+                    result.corrected().percentile(percentile) / 1000.0, result.service().percentile(percentile) / 1000.0);
+        }
+        System.out.printf("%-10s %16.2f %14.2f%n", "max",
+                result.corrected().max() / 1000.0, result.service().max() / 1000.0);
+    }
+
+    static void printSummary(List<Result> results) {
+        System.out.printf("%n=== Summary (corrected latency, ms) ===%n");
+        System.out.printf("%-40s %10s %9s %9s %9s %9s%n", "endpoint", "req/s", "p50", "p99", "p99.9", "max");
+        for (Result result : results) {
+            LogLinearHistogram latency = result.corrected();
+            System.out.printf("%-40s %10.1f %9.2f %9.2f %9.2f %9.2f%n", result.endpoint(), result.throughput(),
+                    latency.percentile(0.5) / 1000.0, latency.percentile(0.99) / 1000.0,
+                    latency.percentile(0.999) / 1000.0, latency.max() / 1000.0);
+        }
+    }
+
+    private static String label(double percentile) {
+        return String.valueOf(percentile * 100).replaceAll("\\.?0+$", "") + "%";
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Settings settings = Settings.parse(args);
+        LoadGenerator generator = new LoadGenerator(settings);
+
+        // Эндпоинты по очереди, чтобы не делили между собой CPU одной машины
+        List<Result> results = new ArrayList<>();
+        for (String endpoint : settings.endpoints()) {
+            System.out.printf("Running %s: warmup %ds, measurement %ds...%n", endpoint,
+                    settings.warmup().toSeconds(), settings.duration().toSeconds());
+            Result result = generator.run(endpoint);
+            print(result, settings);
+            results.add(result);
+        }
+        printSummary(results);
+    }
+}
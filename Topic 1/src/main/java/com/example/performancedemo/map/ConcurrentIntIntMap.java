@@ -0,0 +1,90 @@
+package com.example.performancedemo.map;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Неблокирующая open addressing таблица фиксированной ёмкости для справочников с известным
+ * набором ключей. Слот ключа занимается CAS-ом и больше не освобождается (удаления нет),
+ * значение пишется с release-семантикой. Читатель, успевший увидеть ключ раньше значения,
+ * получает NO_VALUE - как если бы ключа ещё не было.
+ */
+public class ConcurrentIntIntMap implements IntIntMap {
+
+    private static final int EMPTY = 0;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int[] table;
+    private final int mask;
+    private final LongAdder size = new LongAdder();
+    private final AtomicInteger zeroValue = new AtomicInteger(NO_VALUE);
+    private volatile boolean hasZeroKey;
+
+    /**
+     * @param expectedSize максимальное число ключей; при заполнении put бросает IllegalStateException
+     */
+    public ConcurrentIntIntMap(int expectedSize) {
+        int slots = IntIntHashMap.capacityFor(expectedSize);
+        this.table = new int[slots << 1];
+        this.mask = slots - 1;
+    }
+
+    @Override
+    public int get(int key) {
+        if (key == EMPTY) {
+            return zeroValue.get();
+        }
+        for (int slot = IntIntMap.mix(key) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            int k = (int) SLOTS.getAcquire(table, slot << 1);
+            if (k == key) {
+                return (int) SLOTS.getAcquire(table, (slot << 1) + 1);
+            }
+            if (k == EMPTY) {
+                return NO_VALUE;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    @Override
+    public void put(int key, int value) {
+        if (key == EMPTY) {
+            zeroValue.set(value);
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size.increment();
+            }
+            return;
+        }
+        SLOTS.setRelease(table, slotOf(key) + 1, value);
+    }
+
+    @Override
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Индекс ячейки ключа в table; слот занимается, если ключа ещё нет
+     */
+    private int slotOf(int key) {
+        for (int slot = IntIntMap.mix(key) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            int index = slot << 1;
+            int k = (int) SLOTS.getAcquire(table, index);
+            if (k == EMPTY) {
+                k = (int) SLOTS.compareAndExchange(table, index, EMPTY, key);
+                if (k == EMPTY) {
+                    size.increment();
+                    return index;
+                }
+            }
+            // Слот занят, возможно только что и тем же ключом из другого потока
+            if (k == key) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("ConcurrentIntIntMap is full: " + (mask + 1) + " slots");
+    }
+}
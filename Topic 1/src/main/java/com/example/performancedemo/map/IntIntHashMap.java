@@ -0,0 +1,103 @@
+package com.example.performancedemo.map;
+
+/**
+ * Open addressing с линейным пробированием; ключ и значение лежат рядом в одном int[],
+ * поэтому поиск обычно укладывается в одну кэш-линию. Ключ 0 - маркер пустого слота,
+ * его значение хранится отдельно. Не потокобезопасна; основа для
+ * {@link StripedIntIntMap} и {@link StampedIntIntMap}.
+ */
+public class IntIntHashMap implements IntIntMap {
+
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] table;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap(int expectedSize) {
+        int slots = capacityFor(expectedSize);
+        table = new int[slots << 1];
+        resizeAt = (int) (slots * LOAD_FACTOR);
+    }
+
+    /**
+     * Массив читается один раз, а маска выводится из его длины: при оптимистичном чтении
+     * под StampedLock таблица может смениться посреди поиска, но выхода за границы не будет
+     */
+    @Override
+    public int get(int key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : NO_VALUE;
+        }
+        int[] t = table;
+        int mask = (t.length >> 1) - 1;
+        for (int slot = IntIntMap.mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = t[slot << 1];
+            if (k == key) {
+                return t[(slot << 1) + 1];
+            }
+            if (k == EMPTY) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    @Override
+    public void put(int key, int value) {
+        if (key == EMPTY) {
+            size += hasZeroKey ? 0 : 1;
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int mask = (table.length >> 1) - 1;
+        for (int slot = IntIntMap.mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = table[slot << 1];
+            if (k == key) {
+                table[(slot << 1) + 1] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                table[slot << 1] = key;
+                table[(slot << 1) + 1] = value;
+                if (++size >= resizeAt) {
+                    rehash(table);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Новая таблица заполняется целиком и только потом публикуется
+    private void rehash(int[] old) {
+        int[] fresh = new int[old.length << 1];
+        int mask = (fresh.length >> 1) - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            int key = old[i];
+            if (key == EMPTY) {
+                continue;
+            }
+            int slot = IntIntMap.mix(key) & mask;
+            while (fresh[slot << 1] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            fresh[slot << 1] = key;
+            fresh[(slot << 1) + 1] = old[i + 1];
+        }
+        table = fresh;
+        resizeAt = (int) ((fresh.length >> 1) * LOAD_FACTOR);
+    }
+
+    static int capacityFor(int expectedSize) {
+        long slots = (long) Math.ceil(Math.max(2, expectedSize) / LOAD_FACTOR);
+        return (int) Math.min(1 << 29, Long.highestOneBit(slots - 1) << 1);
+    }
+}
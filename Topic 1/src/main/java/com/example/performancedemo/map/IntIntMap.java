@@ -0,0 +1,24 @@
+package com.example.performancedemo.map;
+
+/**
+ * Таблица int -> int без упаковки. Отсутствующий ключ читается как {@link #NO_VALUE}.
+ */
+public interface IntIntMap {
+
+    int NO_VALUE = 0;
+
+    int get(int key);
+
+    void put(int key, int value);
+
+    int size();
+
+    /**
+     * Перемешивание ключа (множитель золотого сечения + xor-сдвиг), чтобы последовательные
+     * ключи не шли подряд по слотам
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
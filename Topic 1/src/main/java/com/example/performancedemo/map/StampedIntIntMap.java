@@ -0,0 +1,53 @@
+package com.example.performancedemo.map;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Таблица под StampedLock для справочников, которые почти только читают: get идёт без
+ * блокировки (optimistic read) и берёт read lock, только если во время чтения прошла запись.
+ * Любая запись сериализуется через write lock.
+ */
+public class StampedIntIntMap implements IntIntMap {
+
+    private final StampedLock lock = new StampedLock();
+    private final IntIntHashMap map;
+
+    public StampedIntIntMap(int expectedSize) {
+        this.map = new IntIntHashMap(expectedSize);
+    }
+
+    @Override
+    public int get(int key) {
+        long stamp = lock.tryOptimisticRead();
+        int value = map.get(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return map.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void put(int key, int value) {
+        long stamp = lock.writeLock();
+        try {
+            map.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.performancedemo.map;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Таблица, разбитая на страйпы со своей блокировкой: писатели в разные страйпы не мешают
+ * друг другу. Страйп выбирается по старшим битам хэша, слот внутри - по младшим.
+ * ReentrantLock, а не synchronized: виртуальный поток на Java 21 не пиннится к носителю.
+ */
+public class StripedIntIntMap implements IntIntMap {
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final IntIntHashMap map;
+
+        Stripe(int expectedSize) {
+            this.map = new IntIntHashMap(expectedSize);
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int shift;
+
+    public StripedIntIntMap(int expectedSize) {
+        this(expectedSize, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedIntIntMap(int expectedSize, int concurrency) {
+        int count = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        this.stripes = new Stripe[count];
+        this.shift = 32 - Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(1, expectedSize / count));
+        }
+    }
+
+    @Override
+    public int get(int key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            return stripe.map.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(int key, int value) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.map.put(key, value);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.map.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(int key) {
+        // При одном страйпе сдвиг на 32 для int - это сдвиг на 0
+        return stripes.length == 1 ? stripes[0] : stripes[IntIntMap.mix(key) >>> shift];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.performancedemo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Лог-линейная гистограмма неотрицательных значений: 2^subBits подкорзин на каждую степень
+ * двойки, относительная ширина корзины 1/2^subBits. Запись без блокировок; значения
+ * от 2^MAX_MAGNITUDE попадают в последнюю корзину.
+ */
+public class LogLinearHistogram {
+
+    private static final int MAX_MAGNITUDE = 40; // 2^40 мкс ~ 12 дней
+
+    private final int subBits;
+    private final int subBuckets;
+    private final AtomicLongArray bins;
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LogLinearHistogram(int subBits) {
+        this.subBits = subBits;
+        this.subBuckets = 1 << subBits;
+        this.bins = new AtomicLongArray((MAX_MAGNITUDE - subBits + 1) * subBuckets);
+    }
+
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        bins.incrementAndGet(index(clamped));
+        max.accumulate(clamped);
+    }
+
+    public void add(LogLinearHistogram other) {
+        if (other.subBits != subBits) {
+            throw new IllegalArgumentException("Precision mismatch: " + other.subBits + " != " + subBits);
+        }
+        for (int i = 0; i < bins.length(); i++) {
+            long count = other.bins.get(i);
+            if (count != 0) {
+                bins.addAndGet(i, count);
+            }
+        }
+        max.accumulate(other.max.get());
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < bins.length(); i++) {
+            total += bins.get(i);
+        }
+        return total;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Середина корзины, в которую попал квантиль; не больше реального максимума.
+     * Последняя корзина сверху не ограничена, для неё возвращается сам максимум
+     */
+    public double percentile(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < bins.length(); i++) {
+            seen += bins.get(i);
+            if (seen >= rank) {
+                return i == bins.length() - 1 ? max.get() : Math.min(value(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    int index(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude >= MAX_MAGNITUDE) {
+            return bins.length() - 1;
+        }
+        int sub = (int) (value >>> (magnitude - subBits)) & (subBuckets - 1);
+        return (magnitude - subBits + 1) * subBuckets + sub;
+    }
+
+    double value(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int magnitude = index / subBuckets + subBits - 1;
+        long width = 1L << (magnitude - subBits);
+        long lower = (subBuckets + index % subBuckets) * width;
+        return lower + width / 2.0;
+    }
+}
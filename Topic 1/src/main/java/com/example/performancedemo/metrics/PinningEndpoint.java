@@ -0,0 +1,37 @@
+package com.example.performancedemo.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/pinning - места, где виртуальные потоки дольше всего держали носитель
+ */
+@Component
+@ConditionalOnProperty(name = "pinning.monitor.enabled", havingValue = "true", matchIfMissing = true)
+@Endpoint(id = "pinning")
+@RequiredArgsConstructor
+public class PinningEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final PinningMonitor monitor;
+
+    @ReadOperation
+    public Map<String, Object> pinning(@Nullable Integer limit) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("running", monitor.isRunning());
+        response.put("thresholdMs", monitor.getThreshold().toMillis());
+        response.put("pinnedEvents", monitor.pinnedCount());
+        response.put("pinnedTotalMs", monitor.pinnedTotalMillis());
+        response.put("submitFailed", monitor.submitFailedCount());
+        response.put("topSites", monitor.topSites(limit != null ? limit : DEFAULT_LIMIT));
+        return response;
+    }
+}
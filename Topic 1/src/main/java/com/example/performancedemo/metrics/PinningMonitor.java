@@ -0,0 +1,197 @@
+package com.example.performancedemo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Стримит из JFR в процессе jdk.VirtualThreadPinned (виртуальный поток заблокировался, не отпустив
+ * носитель: synchronized, нативный кадр) и jdk.VirtualThreadSubmitFailed (планировщик не принял
+ * задачу). Пиннинги агрегируются по стеку; число стеков ограничено max-sites, остальное идёт в OTHER.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "pinning.monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class PinningMonitor {
+
+    static final String PINNED = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    static final String OTHER = "<other>";
+
+    public record SiteSnapshot(String site, List<String> stack, long count, double totalMillis,
+                               double maxMillis, Instant lastSeen) {
+    }
+
+    private static final class Site {
+        final String site;
+        final List<String> stack;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        volatile Instant lastSeen;
+
+        Site(String site, List<String> stack) {
+            this.site = site;
+            this.stack = stack;
+        }
+
+        SiteSnapshot snapshot() {
+            return new SiteSnapshot(site, stack, count.sum(), totalNanos.sum() / 1e6, maxNanos.get() / 1e6, lastSeen);
+        }
+    }
+
+    private final Map<List<String>, Site> sites = new ConcurrentHashMap<>();
+    private final Duration threshold;
+    private final int stackDepth;
+    private final int maxSites;
+
+    private final Timer pinned;
+    private final Counter submitFailed;
+    private RecordingStream stream;
+
+    public PinningMonitor(MeterRegistry meterRegistry,
+                          @Value("${pinning.monitor.threshold:20ms}") Duration threshold,
+                          @Value("${pinning.monitor.stack-depth:12}") int stackDepth,
+                          @Value("${pinning.monitor.max-sites:200}") int maxSites) {
+        this.threshold = threshold;
+        this.stackDepth = stackDepth;
+        this.maxSites = maxSites;
+
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads blocked while pinned to their carrier")
+                .register(meterRegistry);
+        this.submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("Virtual thread starts or unparks rejected by the scheduler")
+                .register(meterRegistry);
+        Gauge.builder("jvm.threads.virtual.pinned.sites", sites, Map::size)
+                .description("Distinct stacks that pinned a virtual thread")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED).withThreshold(threshold).withStackTrace();
+            stream.enable(SUBMIT_FAILED).withStackTrace();
+            stream.onEvent(PINNED, this::onPinned);
+            stream.onEvent(SUBMIT_FAILED, this::onSubmitFailed);
+            stream.startAsync();
+            log.info("Virtual thread pinning monitor started, threshold {}", threshold);
+        } catch (RuntimeException e) {
+            // JFR может быть недоступен (например, -XX:-FlightRecorder)
+            log.warn("Virtual thread pinning monitor is disabled: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        record(event.getDuration(), frames(event.getStackTrace()), event.getStartTime());
+    }
+
+    private void onSubmitFailed(RecordedEvent event) {
+        submitFailed.increment();
+        log.warn("Virtual thread submit failed: {} at {}", event.getString("exceptionMessage"),
+                frames(event.getStackTrace()).stream().findFirst().orElse("?"));
+    }
+
+    void record(Duration duration, List<String> stack, Instant when) {
+        pinned.record(duration);
+
+        Site site = sites.get(stack);
+        if (site == null) {
+            List<String> key = sites.size() < maxSites ? stack : List.of(OTHER);
+            site = sites.computeIfAbsent(key, frames -> new Site(applicationFrame(frames), frames));
+        }
+        long nanos = duration.toNanos();
+        site.count.increment();
+        site.totalNanos.add(nanos);
+        site.maxNanos.accumulate(nanos);
+        site.lastSeen = when;
+    }
+
+    /**
+     * Стеки по убыванию суммарного времени в пиннинге
+     */
+    public List<SiteSnapshot> topSites(int limit) {
+        return sites.values().stream()
+                .map(Site::snapshot)
+                .sorted(Comparator.comparingDouble(SiteSnapshot::totalMillis).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public long pinnedCount() {
+        return pinned.count();
+    }
+
+    public double pinnedTotalMillis() {
+        return pinned.totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    public long submitFailedCount() {
+        return (long) submitFailed.count();
+    }
+
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        return stackTrace.getFrames().stream()
+                .limit(stackDepth)
+                .map(PinningMonitor::format)
+                .toList();
+    }
+
+    private static String format(RecordedFrame frame) {
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return frame.isJavaFrame() ? method + ":" + frame.getLineNumber() : method + " (native)";
+    }
+
+    /**
+     * Верх стека пиннинга - всегда park/sleep в JDK; место в нашем коде - первый кадр вне JDK
+     */
+    static String applicationFrame(List<String> stack) {
+        return stack.stream()
+                .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                .findFirst()
+                .orElse(stack.isEmpty() ? OTHER : stack.get(0));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.performancedemo.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Скользящие окна по шаблонам URL (не по сырому URI, чтобы число окон было ограничено)
+ */
+@Component
+public class RequestMetrics {
+
+    private final Map<String, RollingWindow> windows = new ConcurrentHashMap<>();
+
+    public RollingWindow window(String pattern) {
+        RollingWindow window = windows.get(pattern);
+        return window != null ? window : windows.computeIfAbsent(pattern, key -> new RollingWindow());
+    }
+
+    public RollingWindow.Snapshot snapshot(String pattern) {
+        RollingWindow window = windows.get(pattern);
+        return window != null ? window.snapshot() : new RollingWindow().snapshot();
+    }
+
+    public Map<String, RollingWindow.Snapshot> snapshots() {
+        Map<String, RollingWindow.Snapshot> result = new TreeMap<>();
+        windows.forEach((pattern, window) -> result.put(pattern, window.snapshot()));
+        return result;
+    }
+}
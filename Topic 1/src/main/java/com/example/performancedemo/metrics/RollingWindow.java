@@ -0,0 +1,120 @@
+package com.example.performancedemo.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Скользящее окно запросов одного эндпоинта: кольцо из WINDOW_SECONDS корзин по секунде.
+ * Запись без блокировок: счётчики - LongAdder (страйпы по потокам), латентность -
+ * {@link LogLinearHistogram} в микросекундах (8 подкорзин на степень двойки, погрешность ~12%).
+ * Корзина устаревшей секунды заменяется новой через CAS, а не обнуляется, поэтому
+ * конкурентные записи не теряются.
+ */
+public class RollingWindow {
+
+    public static final int WINDOW_SECONDS = 60;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int SUB_BITS = 3;
+
+    private static final class Bucket {
+        final long second;
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LogLinearHistogram latencyMicros = new LogLinearHistogram(SUB_BITS);
+
+        Bucket(long second) {
+            this.second = second;
+        }
+    }
+
+    public record Snapshot(long requests, double rps, double rpsLastSecond, long inFlight, double errorRate,
+                           double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(WINDOW_SECONDS);
+    private final LongAdder inFlight = new LongAdder();
+
+    public void begin() {
+        inFlight.increment();
+    }
+
+    public void end(long startNanos, boolean error) {
+        long now = System.nanoTime();
+        inFlight.decrement();
+        record(now, now - startNanos, error);
+    }
+
+    void record(long nowNanos, long latencyNanos, boolean error) {
+        Bucket bucket = bucket(second(nowNanos));
+        bucket.count.increment();
+        if (error) {
+            bucket.errors.increment();
+        }
+        bucket.latencyMicros.record(latencyNanos / 1000);
+    }
+
+    public Snapshot snapshot() {
+        return snapshot(System.nanoTime());
+    }
+
+    /**
+     * Текущая секунда ещё набирается: rps считается по завершённым секундам окна,
+     * начиная с самой старой корзины (после старта окно заполнено не целиком)
+     */
+    Snapshot snapshot(long nowNanos) {
+        long current = second(nowNanos);
+        LogLinearHistogram merged = new LogLinearHistogram(SUB_BITS);
+        long total = 0;
+        long completed = 0;
+        long lastSecond = 0;
+        long errors = 0;
+        long oldest = current;
+
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.second <= current - WINDOW_SECONDS || bucket.second > current) {
+                continue;
+            }
+            long count = bucket.count.sum();
+            total += count;
+            if (bucket.second < current) {
+                completed += count;
+            }
+            oldest = Math.min(oldest, bucket.second);
+            if (bucket.second == current - 1) {
+                lastSecond = count;
+            }
+            errors += bucket.errors.sum();
+            merged.add(bucket.latencyMicros);
+        }
+
+        double rps = current > oldest ? (double) completed / (current - oldest) : 0;
+        return new Snapshot(total, rps, lastSecond, inFlight.sum(),
+                total == 0 ? 0 : (double) errors / total,
+                merged.percentile(0.5) / 1000.0,
+                merged.percentile(0.99) / 1000.0,
+                merged.percentile(0.999) / 1000.0,
+                merged.max() / 1000.0);
+    }
+
+    private Bucket bucket(long second) {
+        int slot = (int) Math.floorMod(second, WINDOW_SECONDS);
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.second < second) {
+            Bucket fresh = new Bucket(second);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = buckets.get(slot);
+        }
+        // bucket.second > second: запись из потока, застрявшего дольше окна - учитываем в новой корзине
+        return bucket;
+    }
+
+    // nanoTime может быть отрицательным
+    private static long second(long nanos) {
+        return Math.floorDiv(nanos, NANOS_PER_SECOND);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.performancedemo.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger interrupted = new AtomicInteger();
+
+    @Test
+    void testCollectsResultsInOrderWithinLimits() throws Exception {
+        FanOut fanOut = new FanOut(registry, 4, 10);
+
+        FanOut.Outcome<Integer> outcome = fanOut.invoke(50, Duration.ofSeconds(30), index -> tracked(() -> {
+            Thread.sleep(5);
+            return index * 2;
+        }));
+
+        assertEquals(IntStream.range(0, 50).map(i -> i * 2).boxed().toList(), outcome.results());
+        assertEquals(50, outcome.completed());
+        assertEquals(0, outcome.cancelled());
+        assertFalse(outcome.timedOut());
+        assertNull(outcome.firstFailure());
+        assertTrue(peak.get() <= 4, "peak concurrency " + peak.get());
+        assertEquals(0.0, registry.get("fanout.active").gauge().value());
+    }
+
+    @Test
+    void testDeadlineReturnsPartialResultsAndInterruptsStragglers() throws Exception {
+        FanOut fanOut = new FanOut(registry, 100, 100);
+
+        FanOut.Outcome<Integer> outcome = fanOut.invoke(20, Duration.ofMillis(300), index -> tracked(() -> {
+            if (index >= 5) {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            }
+            return index;
+        }));
+
+        assertTrue(outcome.timedOut());
+        assertEquals(List.of(0, 1, 2, 3, 4), outcome.results());
+        assertEquals(5, outcome.completed());
+        assertEquals(15, outcome.cancelled());
+        assertEquals(0, outcome.failed());
+        assertEquals(15, interrupted.get());
+        assertEquals(0, active.get());
+        assertTrue(outcome.elapsed().compareTo(Duration.ofSeconds(10)) < 0);
+        assertEquals(1.0, registry.get("fanout.timeouts").counter().count());
+        assertEquals(15.0, registry.get("fanout.cancelled").counter().count());
+    }
+
+    @Test
+    void testDeadlineStopsForkingWaves() throws Exception {
+        // Лимит 2 на запрос: после дедлайна новые подзадачи не стартуют
+        FanOut fanOut = new FanOut(registry, 100, 2);
+
+        FanOut.Outcome<Integer> outcome = fanOut.invoke(1_000, Duration.ofMillis(200), index -> tracked(() -> {
+            Thread.sleep(50);
+            return index;
+        }));
+
+        assertTrue(outcome.timedOut());
+        assertTrue(outcome.completed() < 20, "completed " + outcome.completed());
+        assertEquals(1_000, outcome.completed() + outcome.cancelled());
+        assertEquals(0, active.get());
+    }
+
+    @Test
+    void testExpiredDeadlineForksNothing() throws Exception {
+        FanOut fanOut = new FanOut(registry, 100, 100);
+
+        FanOut.Outcome<Integer> outcome = fanOut.invoke(10, Duration.ZERO, index -> tracked(() -> index));
+
+        assertTrue(outcome.timedOut());
+        assertEquals(0, outcome.completed());
+        assertEquals(10, outcome.cancelled());
+        assertEquals(0, peak.get());
+    }
+
+    @Test
+    void testFirstFailureCancelsTheRest() throws Exception {
+        FanOut fanOut = new FanOut(registry, 100, 100);
+        CountDownLatch othersStarted = new CountDownLatch(9);
+
+        FanOut.Outcome<Integer> outcome = fanOut.invoke(10, Duration.ofSeconds(30), index -> tracked(() -> {
+            if (index == 3) {
+                othersStarted.await();
+                throw new IllegalStateException("task 3 failed");
+            }
+            othersStarted.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return index;
+        }));
+
+        assertFalse(outcome.timedOut());
+        assertEquals(1, outcome.failed());
+        assertEquals(9, outcome.cancelled());
+        assertTrue(outcome.results().isEmpty());
+        assertInstanceOf(IllegalStateException.class, outcome.firstFailure());
+        assertEquals(9, interrupted.get());
+        assertEquals(1.0, registry.get("fanout.failed").counter().count());
+        assertEquals(0.0, registry.get("fanout.timeouts").counter().count());
+    }
+
+    @Test
+    void testOwnerInterruptCancelsSubtasks() throws Exception {
+        FanOut fanOut = new FanOut(registry, 100, 100);
+        CountDownLatch started = new CountDownLatch(5);
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        try {
+            Future<FanOut.Outcome<Integer>> call = owner.submit(() ->
+                    fanOut.invoke(5, Duration.ofMinutes(1), index -> tracked(() -> {
+                        started.countDown();
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                        return index;
+                    })));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            owner.shutdownNow();
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(InterruptedException.class, e.getCause());
+            // Scope дожидается прерванных подзадач до выхода из invoke
+            assertEquals(0, active.get());
+            assertEquals(5, interrupted.get());
+        } finally {
+            owner.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEmptyAndNegativeFanOut() throws Exception {
+        FanOut fanOut = new FanOut(registry, 100, 100);
+
+        FanOut.Outcome<Integer> outcome = fanOut.invoke(0, Duration.ofSeconds(1), index -> index);
+
+        assertTrue(outcome.results().isEmpty());
+        assertFalse(outcome.timedOut());
+        assertThrows(IllegalArgumentException.class, () -> fanOut.invoke(-1, Duration.ofSeconds(1), index -> index));
+    }
+
+    @FunctionalInterface
+    private interface Body<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Считает одновременно работающие подзадачи и прерванные из них
+     */
+    private <T> T tracked(Body<T> body) throws Exception {
+        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+        try {
+            return body.run();
+        } catch (InterruptedException e) {
+            interrupted.incrementAndGet();
+            throw e;
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.performancedemo.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorSettingsTest {
+
+    @Test
+    void testDefaults() {
+        LoadGenerator.Settings settings = LoadGenerator.Settings.parse(new String[0]);
+
+        assertEquals("http://localhost:8080", settings.base());
+        assertEquals(List.of("/api/blocking", "/api/virtual/blocking"), settings.endpoints());
+        assertEquals(200.0, settings.rate());
+        assertEquals(1000, settings.concurrency());
+        assertEquals(Duration.ofSeconds(5), settings.warmup());
+        assertEquals(Duration.ofSeconds(30), settings.duration());
+        assertEquals(Duration.ofSeconds(10), settings.timeout());
+    }
+
+    @Test
+    void testParsesKeyValueArguments() {
+        LoadGenerator.Settings settings = LoadGenerator.Settings.parse(new String[]{
+                "base=http://host:9090", "--endpoints=/a,/b,/c", "rate=512.5", "concurrency=64",
+                "warmup=500ms", "duration=2m", "timeout=3s"});
+
+        assertEquals("http://host:9090", settings.base());
+        assertEquals(List.of("/a", "/b", "/c"), settings.endpoints());
+        assertEquals(512.5, settings.rate());
+        assertEquals(64, settings.concurrency());
+        assertEquals(Duration.ofMillis(500), settings.warmup());
+        assertEquals(Duration.ofMinutes(2), settings.duration());
+        assertEquals(Duration.ofSeconds(3), settings.timeout());
+    }
+
+    @Test
+    void testRejectsMalformedArguments() {
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Settings.parse(new String[]{"rate"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Settings.parse(new String[]{"rate=fast"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Settings.parse(new String[]{"concurrency=1.5"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Settings.parse(new String[]{"rate=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Settings.parse(new String[]{"concurrency=-1"}));
+    }
+
+    @Test
+    void testDurationUnits() {
+        assertEquals(Duration.ofMillis(250), LoadGenerator.Settings.duration("250ms"));
+        assertEquals(Duration.ofSeconds(30), LoadGenerator.Settings.duration("30s"));
+        assertEquals(Duration.ofMinutes(2), LoadGenerator.Settings.duration("2m"));
+        assertEquals(Duration.ZERO, LoadGenerator.Settings.duration("0s"));
+    }
+
+    @Test
+    void testDurationWithoutKnownUnitIsRejectedWithExample() {
+        for (String value : new String[]{"30", "5h", "s", "", "-1s", "1.5s"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> LoadGenerator.Settings.duration(value));
+            assertFalse(e instanceof NumberFormatException, value);
+            assertTrue(e.getMessage().contains("30s"), e.getMessage());
+        }
+    }
+}
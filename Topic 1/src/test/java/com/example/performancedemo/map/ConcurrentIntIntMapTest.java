@@ -0,0 +1,57 @@
+package com.example.performancedemo.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentIntIntMapTest {
+
+    @Test
+    void testProbesPastCollisions() {
+        List<Integer> colliding = IntIntHashMapTest.collidingKeys(3, 3, 3);
+        ConcurrentIntIntMap map = new ConcurrentIntIntMap(2);
+
+        for (int key : colliding) {
+            map.put(key, key + 100);
+        }
+
+        for (int key : colliding) {
+            assertEquals(key + 100, map.get(key));
+        }
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void testFullTableRejectsNewKeys() {
+        ConcurrentIntIntMap map = new ConcurrentIntIntMap(2);
+        for (int key = 1; key <= 4; key++) {
+            map.put(key, key);
+        }
+
+        // Существующие ключи и ключ 0 по-прежнему пишутся
+        map.put(4, 40);
+        map.put(0, 1);
+        assertEquals(40, map.get(4));
+        assertEquals(5, map.size());
+        assertEquals(IntIntMap.NO_VALUE, map.get(5));
+        assertThrows(IllegalStateException.class, () -> map.put(5, 5));
+    }
+
+    @Test
+    void testRacingPutsOfSameKeyClaimOneSlot() throws Exception {
+        ConcurrentIntIntMap map = new ConcurrentIntIntMap(1_000);
+
+        ConcurrentMapTesting.runConcurrently(8, thread -> {
+            for (int key = 1; key <= 1_000; key++) {
+                map.put(key, key * 3);
+            }
+        });
+
+        assertEquals(1_000, map.size());
+        for (int key = 1; key <= 1_000; key++) {
+            assertEquals(key * 3, map.get(key));
+        }
+    }
+}
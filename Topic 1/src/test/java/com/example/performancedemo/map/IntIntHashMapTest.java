@@ -0,0 +1,77 @@
+package com.example.performancedemo.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+    @Test
+    void testCapacityIsPowerOfTwoAboveLoadFactor() {
+        assertEquals(4, IntIntHashMap.capacityFor(0));
+        assertEquals(4, IntIntHashMap.capacityFor(2));
+        assertEquals(256, IntIntHashMap.capacityFor(100));
+        assertEquals(1 << 29, IntIntHashMap.capacityFor(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testCollidingKeysProbeAndWrapAround() {
+        // 4 слота: ключи с одним и тем же стартовым слотом идут подряд и переходят через конец таблицы
+        List<Integer> colliding = collidingKeys(3, 3, 2);
+        IntIntHashMap map = new IntIntHashMap(2);
+
+        map.put(colliding.get(0), 10);
+        map.put(colliding.get(1), 20);
+
+        assertEquals(10, map.get(colliding.get(0)));
+        assertEquals(20, map.get(colliding.get(1)));
+        assertEquals(IntIntMap.NO_VALUE, map.get(collidingKeys(3, 3, 3).get(2)));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testRehashKeepsEveryEntry() {
+        IntIntHashMap map = new IntIntHashMap(4);
+
+        for (int key = -5_000; key < 5_000; key++) {
+            map.put(key, key * 2 + 1);
+        }
+
+        assertEquals(10_000, map.size());
+        for (int key = -5_000; key < 5_000; key++) {
+            assertEquals(key * 2 + 1, map.get(key), "key " + key);
+        }
+        assertEquals(IntIntMap.NO_VALUE, map.get(5_000));
+    }
+
+    @Test
+    void testOverwriteAndZeroKey() {
+        IntIntHashMap map = new IntIntHashMap(8);
+        assertEquals(IntIntMap.NO_VALUE, map.get(0));
+
+        map.put(0, 1);
+        map.put(0, 2);
+        map.put(7, 3);
+        map.put(7, 4);
+
+        assertEquals(2, map.get(0));
+        assertEquals(4, map.get(7));
+        assertEquals(2, map.size());
+    }
+
+    /**
+     * Первые count ненулевых ключей, стартовый слот которых при данной маске равен slot
+     */
+    static List<Integer> collidingKeys(int mask, int slot, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 1; keys.size() < count; key++) {
+            if ((IntIntMap.mix(key) & mask) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
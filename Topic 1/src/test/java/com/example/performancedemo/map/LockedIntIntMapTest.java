@@ -0,0 +1,83 @@
+package com.example.performancedemo.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link StripedIntIntMap} и {@link StampedIntIntMap}: обе растут через rehash внутренних таблиц
+ */
+class LockedIntIntMapTest {
+
+    private static final int THREADS = 4;
+    private static final int KEYS_PER_THREAD = 20_000;
+
+    @Test
+    void testStripedConcurrentWritersGrowTheirStripes() throws Exception {
+        assertConcurrentWritesVisible(expected -> new StripedIntIntMap(expected, 4));
+    }
+
+    @Test
+    void testStampedConcurrentWritersGrowTheTable() throws Exception {
+        assertConcurrentWritesVisible(StampedIntIntMap::new);
+    }
+
+    @Test
+    void testSingleStripe() {
+        StripedIntIntMap map = new StripedIntIntMap(4, 1);
+
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key + 1);
+        }
+
+        assertEquals(100, map.size());
+        assertEquals(51, map.get(50));
+    }
+
+    @Test
+    void testOptimisticReadsDuringRehashSeeOnlyWrittenValues() throws Exception {
+        StampedIntIntMap map = new StampedIntIntMap(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        ConcurrentMapTesting.runConcurrently(THREADS, thread -> {
+            if (thread == 0) {
+                for (int key = 1; key <= 200_000; key++) {
+                    map.put(key, -key);
+                }
+                writing.set(false);
+                return;
+            }
+            while (writing.get()) {
+                for (int key = 1; key <= 1_000; key++) {
+                    int value = map.get(key);
+                    if (value != IntIntMap.NO_VALUE && value != -key) {
+                        throw new AssertionError("key " + key + " read as " + value);
+                    }
+                }
+            }
+        });
+
+        assertEquals(200_000, map.size());
+        assertEquals(-123_456, map.get(123_456));
+    }
+
+    private static void assertConcurrentWritesVisible(IntFunction<IntIntMap> factory) throws Exception {
+        // Ёмкость заведомо мала: каждая таблица несколько раз перестраивается под нагрузкой
+        IntIntMap map = factory.apply(16);
+
+        ConcurrentMapTesting.runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                int key = thread * KEYS_PER_THREAD + i;
+                map.put(key, key ^ 0x5555);
+            }
+        });
+
+        assertEquals(THREADS * KEYS_PER_THREAD, map.size());
+        for (int key = 0; key < THREADS * KEYS_PER_THREAD; key++) {
+            assertEquals(key ^ 0x5555, map.get(key), "key " + key);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.performancedemo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLinearHistogramTest {
+
+    private static final int SUB_BITS = 3;
+
+    @Test
+    void testSmallValuesHaveExactBuckets() {
+        LogLinearHistogram histogram = new LogLinearHistogram(SUB_BITS);
+
+        for (int value = 0; value < 1 << SUB_BITS; value++) {
+            assertEquals(value, histogram.index(value));
+            assertEquals(value, histogram.value(value));
+        }
+    }
+
+    @Test
+    void testBucketMidpointWithinRelativeError() {
+        LogLinearHistogram histogram = new LogLinearHistogram(SUB_BITS);
+        double relativeError = 1.0 / (1 << SUB_BITS);
+
+        int previous = -1;
+        for (long value = 1; value < 1L << 40; value = value * 3 / 2 + 1) {
+            int index = histogram.index(value);
+            assertTrue(index >= previous, "index must not decrease at " + value);
+            previous = index;
+            assertEquals(value, histogram.value(index), value * relativeError, "value " + value);
+        }
+    }
+
+    @Test
+    void testBucketBoundaries() {
+        LogLinearHistogram histogram = new LogLinearHistogram(SUB_BITS);
+
+        // 8..15 - по единице на корзину, 16..31 - по две
+        assertEquals(8, histogram.index(8));
+        assertEquals(15, histogram.index(15));
+        assertEquals(16, histogram.index(16));
+        assertEquals(16, histogram.index(17));
+        assertEquals(17, histogram.index(18));
+        assertEquals(17.0, histogram.value(16));
+    }
+
+    @Test
+    void testHugeAndNegativeValuesAreClamped() {
+        LogLinearHistogram histogram = new LogLinearHistogram(SUB_BITS);
+
+        assertEquals(histogram.index(Long.MAX_VALUE), histogram.index(1L << 40));
+        histogram.record(-5);
+        histogram.record(1L << 45);
+
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.percentile(0.5));
+        // Последняя корзина открыта сверху: квантиль в ней - реальный максимум
+        assertEquals(1L << 45, histogram.percentile(1.0));
+    }
+
+    @Test
+    void testPercentiles() {
+        LogLinearHistogram histogram = new LogLinearHistogram(SUB_BITS);
+        assertEquals(0, histogram.percentile(0.99));
+
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000, histogram.max());
+        assertEquals(5_000, histogram.percentile(0.5), 5_000 / 8.0);
+        assertEquals(9_900, histogram.percentile(0.99), 9_900 / 8.0);
+        assertEquals(10_000, histogram.percentile(1.0), 10_000 / 8.0);
+        assertTrue(histogram.percentile(1.0) <= histogram.max());
+        assertEquals(1, histogram.percentile(0.0));
+    }
+
+    @Test
+    void testAddMergesCountsAndMax() {
+        LogLinearHistogram left = new LogLinearHistogram(SUB_BITS);
+        LogLinearHistogram right = new LogLinearHistogram(SUB_BITS);
+        for (int value = 0; value < 100; value++) {
+            (value % 2 == 0 ? left : right).record(value);
+        }
+
+        left.add(right);
+
+        assertEquals(100, left.count());
+        assertEquals(99, left.max());
+        assertEquals(50, right.count());
+        assertThrows(IllegalArgumentException.class, () -> left.add(new LogLinearHistogram(SUB_BITS + 1)));
+    }
+}
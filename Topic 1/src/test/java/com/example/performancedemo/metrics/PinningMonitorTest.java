@@ -0,0 +1,91 @@
+package com.example.performancedemo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinningMonitorTest {
+
+    private static final List<String> LOCK_STACK = List.of(
+            "jdk.internal.misc.Unsafe.park (native)",
+            "java.lang.VirtualThread.parkOnCarrierThread:677",
+            "com.example.performancedemo.service.LegacyClient.call:42",
+            "java.lang.VirtualThread.run:309");
+
+    private static final List<String> SLEEP_STACK = List.of(
+            "java.lang.Thread.sleep:509",
+            "com.example.performancedemo.controller.VirtualThreadController.pinned:120");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void testAggregatesCountTotalAndMaxPerStack() {
+        PinningMonitor monitor = monitor(10);
+
+        monitor.record(Duration.ofMillis(10), LOCK_STACK, now);
+        monitor.record(Duration.ofMillis(30), LOCK_STACK, now.plusSeconds(1));
+        monitor.record(Duration.ofMillis(5), SLEEP_STACK, now);
+
+        List<PinningMonitor.SiteSnapshot> sites = monitor.topSites(10);
+        assertEquals(2, sites.size());
+
+        PinningMonitor.SiteSnapshot top = sites.get(0);
+        assertEquals("com.example.performancedemo.service.LegacyClient.call:42", top.site());
+        assertEquals(LOCK_STACK, top.stack());
+        assertEquals(2, top.count());
+        assertEquals(40.0, top.totalMillis(), 1e-9);
+        assertEquals(30.0, top.maxMillis(), 1e-9);
+        assertEquals(now.plusSeconds(1), top.lastSeen());
+
+        assertEquals(1, sites.get(1).count());
+        assertEquals(3, monitor.pinnedCount());
+        assertEquals(45.0, monitor.pinnedTotalMillis(), 1e-9);
+        assertEquals(2.0, registry.get("jvm.threads.virtual.pinned.sites").gauge().value());
+    }
+
+    @Test
+    void testStacksBeyondMaxSitesGoToOther() {
+        PinningMonitor monitor = monitor(2);
+
+        monitor.record(Duration.ofMillis(1), LOCK_STACK, now);
+        monitor.record(Duration.ofMillis(1), SLEEP_STACK, now);
+        monitor.record(Duration.ofMillis(7), List.of("com.example.A.a:1"), now);
+        monitor.record(Duration.ofMillis(3), List.of("com.example.B.b:2"), now);
+        // Уже известный стек продолжает копиться в своей записи
+        monitor.record(Duration.ofMillis(1), LOCK_STACK, now);
+
+        List<PinningMonitor.SiteSnapshot> sites = monitor.topSites(10);
+        assertEquals(3, sites.size());
+
+        PinningMonitor.SiteSnapshot other = sites.get(0);
+        assertEquals(PinningMonitor.OTHER, other.site());
+        assertEquals(2, other.count());
+        assertEquals(10.0, other.totalMillis(), 1e-9);
+        assertEquals(7.0, other.maxMillis(), 1e-9);
+
+        PinningMonitor.SiteSnapshot lock = sites.stream()
+                .filter(site -> site.stack().equals(LOCK_STACK))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, lock.count());
+    }
+
+    @Test
+    void testApplicationFrameSkipsJdkFrames() {
+        assertEquals("com.example.performancedemo.service.LegacyClient.call:42",
+                PinningMonitor.applicationFrame(LOCK_STACK));
+        assertEquals("jdk.internal.misc.Unsafe.park (native)",
+                PinningMonitor.applicationFrame(List.of("jdk.internal.misc.Unsafe.park (native)", "sun.nio.ch.Net.poll:1")));
+        assertEquals(PinningMonitor.OTHER, PinningMonitor.applicationFrame(List.of()));
+    }
+
+    private PinningMonitor monitor(int maxSites) {
+        return new PinningMonitor(registry, Duration.ofMillis(20), 12, maxSites);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.performancedemo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingWindowTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    void testRpsUsesCompletedSecondsOnly() {
+        RollingWindow window = new RollingWindow();
+        for (int second = 0; second < 10; second++) {
+            for (int i = 0; i < 10; i++) {
+                window.record(START + second * SECOND, MILLI, false);
+            }
+        }
+        // Текущая секунда ещё набирается и в rps не входит
+        window.record(START + 10 * SECOND, MILLI, false);
+
+        RollingWindow.Snapshot snapshot = window.snapshot(START + 10 * SECOND + SECOND / 2);
+
+        assertEquals(101, snapshot.requests());
+        assertEquals(10.0, snapshot.rps());
+        assertEquals(10.0, snapshot.rpsLastSecond());
+        assertEquals(0.0, snapshot.errorRate());
+    }
+
+    @Test
+    void testBucketsOlderThanWindowAreReplaced() {
+        RollingWindow window = new RollingWindow();
+        window.record(START, MILLI, true);
+        // Тот же слот кольца через WINDOW_SECONDS секунд
+        long later = START + RollingWindow.WINDOW_SECONDS * SECOND;
+        window.record(later, 2 * MILLI, false);
+
+        RollingWindow.Snapshot snapshot = window.snapshot(later);
+
+        assertEquals(1, snapshot.requests());
+        assertEquals(0.0, snapshot.errorRate());
+        assertEquals(2.0, snapshot.maxMillis());
+        assertEquals(0, window.snapshot(later + RollingWindow.WINDOW_SECONDS * SECOND).requests());
+    }
+
+    @Test
+    void testLatencyPercentilesAndErrors() {
+        RollingWindow window = new RollingWindow();
+        for (int i = 1; i <= 1000; i++) {
+            window.record(START, i * MILLI, i % 10 == 0);
+        }
+
+        RollingWindow.Snapshot snapshot = window.snapshot(START);
+
+        assertEquals(0.1, snapshot.errorRate(), 1e-9);
+        assertEquals(500, snapshot.p50Millis(), 500 / 8.0);
+        assertEquals(990, snapshot.p99Millis(), 990 / 8.0);
+        assertEquals(1000.0, snapshot.maxMillis());
+    }
+
+    @Test
+    void testNegativeNanoTime() {
+        RollingWindow window = new RollingWindow();
+        window.record(-SECOND / 2, MILLI, false);
+        window.record(SECOND / 2, MILLI, false);
+
+        RollingWindow.Snapshot snapshot = window.snapshot(SECOND / 2);
+
+        assertEquals(2, snapshot.requests());
+        assertEquals(1.0, snapshot.rpsLastSecond());
+    }
+
+    @Test
+    void testConcurrentRolloverLosesNoRecords() throws Exception {
+        int threads = 8;
+        int perThread = 10_000;
+        RollingWindow window = new RollingWindow();
+        // Слот занят устаревшей корзиной: все потоки одновременно пытаются её заменить
+        window.record(START - RollingWindow.WINDOW_SECONDS * SECOND, MILLI, false);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < perThread; i++) {
+                        window.record(START, MILLI, false);
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals((long) threads * perThread, window.snapshot(START).requests());
+    }
+
+    @Test
+    void testInFlight() {
+        RollingWindow window = new RollingWindow();
+        window.begin();
+        window.begin();
+        window.end(System.nanoTime(), false);
+
+        assertEquals(1, window.snapshot().inFlight());
+    }
+}